@@ -18,9 +18,17 @@ package com.akhbulatov.wordkeeper;
 
 import android.app.Application;
 
+import com.akhbulatov.wordkeeper.database.CategoryCatalog;
+import com.akhbulatov.wordkeeper.database.DatabaseHelper;
+import com.akhbulatov.wordkeeper.model.ReviewDay;
+import com.akhbulatov.wordkeeper.repository.ReviewLogRepository;
+import com.akhbulatov.wordkeeper.repository.WordRepository;
+import com.akhbulatov.wordkeeper.util.SharedPreferencesManager;
 import com.crashlytics.android.Crashlytics;
 import com.crashlytics.android.core.CrashlyticsCore;
 
+import java.util.Locale;
+
 import io.fabric.sdk.android.Fabric;
 
 /**
@@ -33,6 +41,7 @@ public class App extends Application {
     public void onCreate() {
         super.onCreate();
         initCrashlytics();
+        initDatabase();
     }
 
     private void initCrashlytics() {
@@ -43,4 +52,41 @@ public class App extends Application {
                 .build();
         Fabric.with(this, crashlyticsKit);
     }
+
+    // Creates the database helper shared by the whole app. The adapters request the connection
+    // only when they query, so the database is opened and upgraded by the first load
+    // of the categories in the background instead of the main thread
+    private void initDatabase() {
+        DatabaseHelper.getInstance(this);
+        // Loads the categories in the background before they are shown
+        CategoryCatalog.getInstance(this);
+        updateSortKeys();
+        // Refills the columns marked as stale by the upgrade or the change of the language
+        new WordRepository(this).updateStaleColumns();
+        compactReviewLog();
+    }
+
+    // The words are sorted by name in the language of the device,
+    // so the sort keys are marked as stale when the language is changed
+    private void updateSortKeys() {
+        String locale = Locale.getDefault().toString();
+        String sortLocale = SharedPreferencesManager.getSortLocale(this);
+        if (sortLocale == null) {
+            // The keys have been created for the current language by the database
+            SharedPreferencesManager.setSortLocale(this, locale);
+        } else if (!sortLocale.equals(locale)) {
+            SharedPreferencesManager.setNameSortKeysStale(this, true);
+            SharedPreferencesManager.setSortLocale(this, locale);
+        }
+    }
+
+    // The old reviews are compacted at most once a day, each time only one more day
+    // usually becomes old enough, so the compaction is short
+    private void compactReviewLog() {
+        long today = ReviewDay.toDay(System.currentTimeMillis());
+        if (SharedPreferencesManager.getReviewLogCompactedDay(this) < today) {
+            new ReviewLogRepository(this).compact(today,
+                    count -> SharedPreferencesManager.setReviewLogCompactedDay(this, today));
+        }
+    }
 }
@@ -17,7 +17,9 @@
 package com.akhbulatov.wordkeeper.adapter;
 
 import android.content.Context;
+import android.database.CharArrayBuffer;
 import android.database.Cursor;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -25,10 +27,10 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.akhbulatov.wordkeeper.R;
-import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
-import com.akhbulatov.wordkeeper.database.WordDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.CategoryCursor;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 /**
@@ -41,41 +43,77 @@ import androidx.recyclerview.widget.RecyclerView;
  */
 public class CategoryAdapter extends CursorRecyclerViewAdapter<CategoryAdapter.CategoryViewHolder> {
 
-    private WordDatabaseAdapter mWordDbAdapter;
     private CategoryItemClickListener mListener;
 
-    public CategoryAdapter(Cursor cursor, WordDatabaseAdapter wordDbAdapter) {
+    // Reads the current cursor by the positions of its columns
+    private CategoryCursor mCategoryCursor;
+    // The texts of the numbers of words by the numbers, the categories often have the same numbers
+    private final SparseArray<String> mNumbersOfWords = new SparseArray<>();
+    private String mDefaultCategory;
+
+    /**
+     * @param cursor The cursor with the categories and the number of words in each of them
+     */
+    public CategoryAdapter(Cursor cursor) {
         super(cursor);
-        mWordDbAdapter = wordDbAdapter;
+        if (cursor != null) {
+            mCategoryCursor = new CategoryCursor(cursor);
+        }
     }
 
     @NonNull
     @Override
     public CategoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (mDefaultCategory == null) {
+            mDefaultCategory = parent.getContext().getString(R.string.default_category);
+        }
         View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_category, parent, false);
-        return new CategoryViewHolder(itemView);
+        CategoryViewHolder viewHolder = new CategoryViewHolder(itemView);
+        itemView.setOnClickListener(v -> {
+            if (mListener != null)
+                mListener.onCategoryItemClick(viewHolder.mCategoryId, viewHolder.getCategoryName());
+        });
+        return viewHolder;
     }
 
     @Override
     public void onBindViewHolder(CategoryViewHolder viewHolder, Cursor cursor) {
-        String numberOfWords = getNumberOfWords(viewHolder.itemView.getContext(), cursor);
-        viewHolder.bind(cursor, numberOfWords, mListener);
+        // The wrapper reads the same cursor, which is already moved to the position of the row
+        String numberOfWords = getNumberOfWords(viewHolder.itemView.getContext(), mCategoryCursor.getWordCount());
+        viewHolder.bind(mCategoryCursor, numberOfWords, mDefaultCategory);
+    }
+
+    @Override
+    public Cursor swapCursor(Cursor newCursor, @Nullable CursorDiff diff) {
+        if (newCursor != getCursor()) {
+            // Finds the columns before the rows of the new cursor are bound
+            mCategoryCursor = newCursor != null ? new CategoryCursor(newCursor) : null;
+        }
+        return super.swapCursor(newCursor, diff);
     }
 
     public void setOnItemClickListener(CategoryItemClickListener listener) {
         mListener = listener;
     }
 
-    private String getNumberOfWords(Context context, Cursor cursor) {
-        String categoryName = cursor.getString(cursor.getColumnIndex(CategoryEntry.COLUMN_NAME));
-        Cursor cursorRecords = mWordDbAdapter.getRecordsByCategory(categoryName);
-
-        int count = cursorRecords.getCount();
-        return context.getResources().getQuantityString(R.plurals.number_of_words, count, count);
+    private String getNumberOfWords(Context context, int count) {
+        String numberOfWords = mNumbersOfWords.get(count);
+        if (numberOfWords == null) {
+            numberOfWords = context.getResources().getQuantityString(R.plurals.number_of_words, count, count);
+            mNumbersOfWords.put(count, numberOfWords);
+        }
+        return numberOfWords;
     }
 
     static class CategoryViewHolder extends RecyclerView.ViewHolder {
 
+        // The initial size of the buffer, it is enlarged for the longer names
+        private static final int BUFFER_SIZE = 32;
+
+        // The name is copied to the buffer, so binding a row creates no strings
+        private final CharArrayBuffer mNameBuffer = new CharArrayBuffer(BUFFER_SIZE);
+        private long mCategoryId;
+
         private TextView mTextCategoryName;
         private TextView mTextNumberOfWords;
         private ImageView mImageMoreOptions;
@@ -85,34 +123,44 @@ public class CategoryAdapter extends CursorRecyclerViewAdapter<CategoryAdapter.C
             mTextCategoryName = itemView.findViewById(R.id.text_category_name);
             mTextNumberOfWords = itemView.findViewById(R.id.text_number_of_words);
             mImageMoreOptions = itemView.findViewById(R.id.image_more_options);
+            mImageMoreOptions.setOnClickListener(v -> itemView.showContextMenu());
         }
 
-        void bind(Cursor cursor, String numberOfWords, CategoryItemClickListener listener) {
-            Context context = itemView.getContext();
-
-            String categoryName = cursor.getString(cursor.getColumnIndex(CategoryEntry.COLUMN_NAME));
-            mTextCategoryName.setText(categoryName);
+        void bind(CategoryCursor cursor, String numberOfWords, String defaultCategory) {
+            mCategoryId = cursor.getId();
+            cursor.copyNameToBuffer(mNameBuffer);
+            mTextCategoryName.setText(mNameBuffer.data, 0, mNameBuffer.sizeCopied);
             mTextNumberOfWords.setText(numberOfWords);
 
             // Makes the default category of non-editable
-            String defaultCategory = context.getResources().getString(R.string.default_category);
-            if (defaultCategory.equals(categoryName)) {
+            if (isName(defaultCategory)) {
                 mImageMoreOptions.setVisibility(View.GONE);
-                mImageMoreOptions.setOnClickListener(null);
                 itemView.setLongClickable(false);
             } else {
                 mImageMoreOptions.setVisibility(View.VISIBLE);
-                mImageMoreOptions.setOnClickListener(v -> itemView.showContextMenu());
                 itemView.setLongClickable(true);
             }
-            itemView.setOnClickListener(v -> {
-                if (listener != null)
-                    listener.onCategoryItemClick(mTextCategoryName.getText().toString());
-            });
+        }
+
+        String getCategoryName() {
+            return new String(mNameBuffer.data, 0, mNameBuffer.sizeCopied);
+        }
+
+        // Compares the name in the buffer without creating a string of it
+        private boolean isName(String name) {
+            if (name.length() != mNameBuffer.sizeCopied) {
+                return false;
+            }
+            for (int i = 0; i < mNameBuffer.sizeCopied; i++) {
+                if (mNameBuffer.data[i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 
     public interface CategoryItemClickListener {
-        void onCategoryItemClick(String categoryName);
+        void onCategoryItemClick(long categoryId, String categoryName);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.adapter;
+
+import android.database.Cursor;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Contains the changes between the cursor shown by an adapter and a new cursor.
+ * Calculated in the background, where the new cursor is loaded, and then passed
+ * to {@link CursorRecyclerViewAdapter#swapCursor(Cursor, CursorDiff)}
+ */
+public final class CursorDiff {
+
+    private static final Object PAYLOAD_CONTENT_CHANGED = new Object();
+
+    @Nullable
+    private final CursorSnapshot mOldSnapshot;
+    private final CursorSnapshot mNewSnapshot;
+    @Nullable
+    private final DiffUtil.DiffResult mResult;
+
+    private CursorDiff(@Nullable CursorSnapshot oldSnapshot,
+                       CursorSnapshot newSnapshot,
+                       @Nullable DiffUtil.DiffResult result) {
+        mOldSnapshot = oldSnapshot;
+        mNewSnapshot = newSnapshot;
+        mResult = result;
+    }
+
+    /**
+     * Compares the rows of the new cursor with the snapshot of the cursor shown by the adapter.
+     * Only the arrays of the IDs and the hashes are compared, so any number of rows is compared
+     * without reading the cursors again. Must not be called on the main thread
+     *
+     * @param oldSnapshot The snapshot returned by {@link CursorRecyclerViewAdapter#getSnapshot()}
+     * @param newCursor   The new cursor not yet passed to the adapter
+     */
+    public static CursorDiff calculate(@Nullable CursorSnapshot oldSnapshot, Cursor newCursor) {
+        CursorSnapshot newSnapshot = CursorSnapshot.take(newCursor);
+        if (oldSnapshot == null) {
+            return new CursorDiff(oldSnapshot, newSnapshot, null);
+        }
+
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldSnapshot.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newSnapshot.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return oldSnapshot.mIds[oldItemPosition] == newSnapshot.mIds[newItemPosition];
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                // The hashes of different kinds are considered changed, so the rows are bound again
+                return oldSnapshot.mVersionHashes == newSnapshot.mVersionHashes
+                        && oldSnapshot.mContentHashes[oldItemPosition]
+                        == newSnapshot.mContentHashes[newItemPosition];
+            }
+
+            @Override
+            public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                // With a payload the row is bound again in place instead of being faded into a new view
+                return PAYLOAD_CONTENT_CHANGED;
+            }
+        });
+        return new CursorDiff(oldSnapshot, newSnapshot, result);
+    }
+
+    /**
+     * Returns the snapshot of the new cursor
+     */
+    public CursorSnapshot getNewSnapshot() {
+        return mNewSnapshot;
+    }
+
+    /**
+     * Notifies the adapter about the changed rows. If the adapter no longer shows the rows
+     * the diff was calculated from, notifies that all rows have changed
+     *
+     * @param currentSnapshot The snapshot of the rows shown by the adapter
+     */
+    void dispatchUpdatesTo(RecyclerView.Adapter adapter, @Nullable CursorSnapshot currentSnapshot) {
+        if (mResult != null && mOldSnapshot == currentSnapshot) {
+            mResult.dispatchUpdatesTo(adapter);
+        } else {
+            adapter.notifyDataSetChanged();
+        }
+    }
+}
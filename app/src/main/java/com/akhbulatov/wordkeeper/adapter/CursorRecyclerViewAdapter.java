@@ -20,6 +20,7 @@ import android.database.Cursor;
 import android.database.DataSetObserver;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
 
 public abstract class CursorRecyclerViewAdapter<VH extends RecyclerView.ViewHolder> extends
@@ -29,6 +30,8 @@ public abstract class CursorRecyclerViewAdapter<VH extends RecyclerView.ViewHold
     private boolean mDataValid;
     private int mRowIdColumn;
     private DataSetObserver mDataSetObserver;
+    // The snapshot of the current cursor, if it has been taken, to calculate the changes of the next cursor
+    private volatile CursorSnapshot mSnapshot;
 
     public CursorRecyclerViewAdapter(Cursor cursor) {
         mCursor = cursor;
@@ -78,6 +81,15 @@ public abstract class CursorRecyclerViewAdapter<VH extends RecyclerView.ViewHold
         return mCursor;
     }
 
+    /**
+     * Returns the snapshot of the current cursor, which is used in the background
+     * to calculate the changes of the next cursor by {@link CursorDiff#calculate(CursorSnapshot, Cursor)}
+     */
+    @Nullable
+    public CursorSnapshot getSnapshot() {
+        return mSnapshot;
+    }
+
     /**
      * Change the underlying cursor to a new cursor. If there is an existing cursor it will be
      * closed.
@@ -95,6 +107,14 @@ public abstract class CursorRecyclerViewAdapter<VH extends RecyclerView.ViewHold
      * closed.
      */
     public Cursor swapCursor(Cursor newCursor) {
+        return swapCursor(newCursor, null);
+    }
+
+    /**
+     * Swap in a new Cursor, returning the old Cursor, and notifies only about the rows
+     * that have been changed according to the diff. Without the diff notifies that all rows have changed
+     */
+    public Cursor swapCursor(Cursor newCursor, @Nullable CursorDiff diff) {
         if (newCursor == mCursor) {
             return null;
         }
@@ -109,10 +129,16 @@ public abstract class CursorRecyclerViewAdapter<VH extends RecyclerView.ViewHold
             }
             mRowIdColumn = newCursor.getColumnIndexOrThrow("_id");
             mDataValid = true;
-            notifyDataSetChanged();
+            if (diff != null) {
+                diff.dispatchUpdatesTo(this, mSnapshot);
+            } else {
+                notifyDataSetChanged();
+            }
+            mSnapshot = diff != null ? diff.getNewSnapshot() : null;
         } else {
             mRowIdColumn = -1;
             mDataValid = false;
+            mSnapshot = null;
             notifyDataSetChanged();
             // There is no notifyDataSetInvalidated() method in RecyclerView.Adapter
         }
@@ -125,6 +151,7 @@ public abstract class CursorRecyclerViewAdapter<VH extends RecyclerView.ViewHold
         public void onChanged() {
             super.onChanged();
             mDataValid = true;
+            mSnapshot = null;
             notifyDataSetChanged();
         }
 
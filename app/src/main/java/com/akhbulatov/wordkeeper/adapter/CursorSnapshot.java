@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.adapter;
+
+import android.database.Cursor;
+
+import com.akhbulatov.wordkeeper.database.WordPagedCursor;
+
+/**
+ * Contains the IDs and the hashes of the contents of all rows of a cursor.
+ * The contents of the cursors loaded by pages are unknown, the hashes of the times
+ * of their last changes are kept instead.
+ * Immutable, so it can be compared with another snapshot on any thread
+ */
+public final class CursorSnapshot {
+
+    final long[] mIds;
+    final int[] mContentHashes;
+    // True if the hashes are of the times of the changes, which cannot be compared with the contents
+    final boolean mVersionHashes;
+
+    private CursorSnapshot(long[] ids, int[] contentHashes, boolean versionHashes) {
+        mIds = ids;
+        mContentHashes = contentHashes;
+        mVersionHashes = versionHashes;
+    }
+
+    int size() {
+        return mIds.length;
+    }
+
+    /**
+     * Reads all rows of the cursor and moves it back to the first row.
+     * Must be called in the background before the cursor is passed to the adapter
+     */
+    public static CursorSnapshot take(Cursor cursor) {
+        if (cursor instanceof WordPagedCursor) {
+            // Reading the rows would load all pages
+            WordPagedCursor pagedCursor = (WordPagedCursor) cursor;
+            return new CursorSnapshot(pagedCursor.getIds(), pagedCursor.getVersionHashes(), true);
+        }
+        int count = cursor.getCount();
+        CursorSnapshot snapshot = new CursorSnapshot(new long[count], new int[count], false);
+        int idColumn = cursor.getColumnIndexOrThrow("_id");
+        int columnCount = cursor.getColumnCount();
+        for (int i = 0; i < count && cursor.moveToPosition(i); i++) {
+            int hash = 0;
+            for (int column = 0; column < columnCount; column++) {
+                if (column != idColumn) {
+                    String value = cursor.getString(column);
+                    hash = 31 * hash + (value != null ? value.hashCode() : 0);
+                }
+            }
+            snapshot.mIds[i] = cursor.getLong(idColumn);
+            snapshot.mContentHashes[i] = hash;
+        }
+        cursor.moveToFirst();
+        return snapshot;
+    }
+}
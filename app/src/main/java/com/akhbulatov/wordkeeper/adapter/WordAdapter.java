@@ -16,110 +16,238 @@
 
 package com.akhbulatov.wordkeeper.adapter;
 
+import android.database.CharArrayBuffer;
 import android.database.Cursor;
 import android.graphics.Color;
-import android.util.SparseBooleanArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.akhbulatov.wordkeeper.R;
-import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.akhbulatov.wordkeeper.database.WordCursor;
+import com.akhbulatov.wordkeeper.database.WordPagedCursor;
+import com.akhbulatov.wordkeeper.model.WordSelection;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 /**
  * Provides display a list of words in RecyclerView.
- * Saves the state of the selection for ActionMode
+ * Saves the state of the selection for ActionMode by the IDs of the words,
+ * so the selection stays on the same words when the list is changed
  */
 public class WordAdapter extends CursorRecyclerViewAdapter<WordAdapter.WordViewHolder> {
 
-    private SparseBooleanArray mSelectedWords;
+    // The number of the rows beyond the visible ones whose texts are precomputed during the scroll
+    private static final int PRECOMPUTE_DISTANCE = 20;
+
+    private final WordSelection mSelection;
+    private final WordTextPrecomputer mPrecomputer = new WordTextPrecomputer();
+    // Reads the translations of the rows that are not shown yet, used only to check the cache
+    private final CharArrayBuffer mPrecomputeBuffer = new CharArrayBuffer(WordViewHolder.BUFFER_SIZE);
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            precomputeAhead(recyclerView, dy);
+        }
+    };
+    // Binds the rows of a page again when the page of the current cursor has been loaded
+    private final WordPagedCursor.OnPageLoadedListener mPageLoadedListener = this::notifyItemRangeChanged;
     private WordItemClickListener mListener;
 
+    // Reads the current cursor by the positions of its columns
+    private WordCursor mWordCursor;
+
     public WordAdapter(Cursor cursor) {
         super(cursor);
-        mSelectedWords = new SparseBooleanArray();
+        mSelection = new WordSelection();
+        if (cursor != null) {
+            mWordCursor = new WordCursor(cursor);
+        }
+        if (cursor instanceof WordPagedCursor) {
+            ((WordPagedCursor) cursor).setOnPageLoadedListener(mPageLoadedListener);
+        }
     }
 
     @NonNull
     @Override
     public WordViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View itemView = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_word, parent, false);
-        return new WordViewHolder(itemView);
+        WordViewHolder viewHolder = new WordViewHolder(itemView);
+        if (!mPrecomputer.hasParams()) {
+            mPrecomputer.setParams(TextViewCompat.getTextMetricsParams(viewHolder.mTextWordTranslation));
+        }
+        itemView.setOnClickListener(v -> {
+            if (mListener != null) mListener.onWordItemClick(viewHolder.getAdapterPosition());
+        });
+        itemView.setOnLongClickListener(v ->
+                mListener != null && mListener.onWordItemLongClick(viewHolder.getAdapterPosition()));
+        return viewHolder;
     }
 
     @Override
     public void onBindViewHolder(WordViewHolder viewHolder, Cursor cursor) {
-        viewHolder.bind(cursor, isSelected(cursor.getPosition()), mListener);
+        // The wrapper reads the same cursor, which is already moved to the position of the row
+        long id = mWordCursor.getId();
+        if (cursor instanceof WordPagedCursor && !((WordPagedCursor) cursor).isRowLoaded()) {
+            // The page of the row is being loaded, the row is bound again when it is loaded
+            viewHolder.bindPlaceholder(mSelection.isSelected(id));
+            return;
+        }
+        viewHolder.bind(mWordCursor, id, mSelection.isSelected(id), mPrecomputer);
     }
 
-    public List<Integer> getSelectedWords() {
-        List<Integer> words = new ArrayList<>(mSelectedWords.size());
-        for (int i = 0; i < mSelectedWords.size(); i++) {
-            words.add(mSelectedWords.keyAt(i));
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        recyclerView.addOnScrollListener(mScrollListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        recyclerView.removeOnScrollListener(mScrollListener);
+    }
+
+    @Override
+    public Cursor swapCursor(Cursor newCursor, @Nullable CursorDiff diff) {
+        Cursor oldCursor = getCursor();
+        if (newCursor != oldCursor) {
+            // Finds the columns before the rows of the new cursor are bound
+            mWordCursor = newCursor != null ? new WordCursor(newCursor) : null;
+            if (oldCursor instanceof WordPagedCursor) {
+                ((WordPagedCursor) oldCursor).setOnPageLoadedListener(null);
+            }
+            if (newCursor instanceof WordPagedCursor) {
+                ((WordPagedCursor) newCursor).setOnPageLoadedListener(mPageLoadedListener);
+            }
+        }
+        return super.swapCursor(newCursor, diff);
+    }
+
+    /**
+     * Precomputes the translations of the rows following the visible ones in the direction of the scroll,
+     * so they are ready when the rows are bound
+     */
+    private void precomputeAhead(RecyclerView recyclerView, int dy) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager) || mWordCursor == null) {
+            return;
+        }
+        LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+        int start;
+        int end;
+        if (dy >= 0) {
+            start = linearLayoutManager.findLastVisibleItemPosition() + 1;
+            end = Math.min(start + PRECOMPUTE_DISTANCE, getItemCount());
+        } else {
+            end = linearLayoutManager.findFirstVisibleItemPosition();
+            start = Math.max(end - PRECOMPUTE_DISTANCE, 0);
+        }
+        // The rows are bound after the cursor is moved again, so it can be moved here
+        for (int position = start; position < end && mWordCursor.moveToPosition(position); position++) {
+            long id = mWordCursor.getId();
+            mWordCursor.copyTranslationToBuffer(mPrecomputeBuffer);
+            if (mWordCursor.isTranslationNull()
+                    || !mPrecomputer.needs(id, WordTextPrecomputer.hash(mPrecomputeBuffer))) {
+                continue;
+            }
+            mPrecomputer.precompute(id, mWordCursor.getTranslation());
         }
-        return words;
     }
 
     public void setOnItemClickListener(WordItemClickListener listener) {
         mListener = listener;
     }
 
+    public WordSelection getSelection() {
+        return mSelection;
+    }
+
     public int getSelectedWordCount() {
-        return mSelectedWords.size();
+        return mSelection.getCount();
     }
 
     public void toggleSelection(int position) {
-        if (mSelectedWords.get(position, false)) {
-            mSelectedWords.delete(position);
-        } else {
-            mSelectedWords.put(position, true);
-        }
+        mSelection.toggle(getItemId(position));
         notifyItemChanged(position);
     }
 
-    public void clearSelection() {
-        List<Integer> selection = getSelectedWords();
-        mSelectedWords.clear();
-        for (Integer i : selection) {
-            notifyItemChanged(i);
+    /**
+     * Selects the words between the positions including both of them
+     */
+    public void selectRange(int fromPosition, int toPosition) {
+        int start = Math.max(Math.min(fromPosition, toPosition), 0);
+        int end = Math.min(Math.max(fromPosition, toPosition), getItemCount() - 1);
+        for (int position = start; position <= end; position++) {
+            mSelection.setSelected(getItemId(position), true);
+        }
+        if (end >= start) {
+            notifyItemRangeChanged(start, end - start + 1);
         }
     }
 
-    private boolean isSelected(int position) {
-        return getSelectedWords().contains(position);
+    /**
+     * Selects all words matching the query without reading their IDs
+     *
+     * @see WordSelection#selectAll(String, int)
+     */
+    public void selectAll(String query, int matchingCount) {
+        mSelection.selectAll(query, matchingCount);
+        notifyItemRangeChanged(0, getItemCount());
+    }
+
+    public void clearSelection() {
+        mSelection.clear();
+        notifyItemRangeChanged(0, getItemCount());
     }
 
     static class WordViewHolder extends RecyclerView.ViewHolder {
 
+        // The initial size of the buffers, they are enlarged for the longer texts
+        private static final int BUFFER_SIZE = 64;
+
+        // The name and the translation are copied to the buffers, so binding a row creates no strings
+        private final CharArrayBuffer mNameBuffer = new CharArrayBuffer(BUFFER_SIZE);
+        private final CharArrayBuffer mTranslationBuffer = new CharArrayBuffer(BUFFER_SIZE);
+        private final int mSelectedItemColor;
+
         private TextView mTextWordName;
         private TextView mTextWordTranslation;
 
         WordViewHolder(View itemView) {
             super(itemView);
+            mSelectedItemColor = ContextCompat.getColor(itemView.getContext(), R.color.selected_list_item);
             mTextWordName = itemView.findViewById(R.id.text_word_name);
             mTextWordTranslation = itemView.findViewById(R.id.text_word_translation);
         }
 
-        void bind(Cursor cursor, boolean selected, WordItemClickListener listener) {
-            mTextWordName.setText((cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_NAME))));
-            mTextWordTranslation.setText((cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_TRANSLATION))));
+        void bind(WordCursor cursor, long id, boolean selected, WordTextPrecomputer precomputer) {
+            cursor.copyNameToBuffer(mNameBuffer);
+            mTextWordName.setText(mNameBuffer.data, 0, mNameBuffer.sizeCopied);
 
-            int selectedItemColor = ContextCompat.getColor(itemView.getContext(), R.color.selected_list_item);
-            itemView.setBackgroundColor(selected ? selectedItemColor : Color.TRANSPARENT);
+            cursor.copyTranslationToBuffer(mTranslationBuffer);
+            PrecomputedTextCompat translation = precomputer.get(id, WordTextPrecomputer.hash(mTranslationBuffer));
+            if (translation != null) {
+                // The text has already been measured in the background
+                TextViewCompat.setPrecomputedText(mTextWordTranslation, translation);
+            } else {
+                mTextWordTranslation.setText(mTranslationBuffer.data, 0, mTranslationBuffer.sizeCopied);
+            }
+            itemView.setBackgroundColor(selected ? mSelectedItemColor : Color.TRANSPARENT);
+        }
 
-            itemView.setOnClickListener(v -> {
-                if (listener != null) listener.onWordItemClick(getAdapterPosition());
-            });
-            itemView.setOnLongClickListener(v ->
-                    listener != null && listener.onWordItemLongClick(getAdapterPosition()));
+        // Keeps the height of the row while its texts are not loaded
+        void bindPlaceholder(boolean selected) {
+            mTextWordName.setText(null);
+            mTextWordTranslation.setText(null);
+            itemView.setBackgroundColor(selected ? mSelectedItemColor : Color.TRANSPARENT);
         }
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.adapter;
+
+import android.database.CharArrayBuffer;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.akhbulatov.wordkeeper.util.LongHashSet;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+
+/**
+ * Measures and lays out the texts of the words in the background before their rows are shown,
+ * so binding a row only sets the ready text instead of measuring it on the main thread.
+ * The texts are kept by the IDs of the words along with the hashes of the texts,
+ * so a changed text is not shown from the cache. Should be used on the main thread
+ */
+final class WordTextPrecomputer {
+
+    private static final int MAX_CACHED_TEXTS = 200;
+    // The texts requested beyond it are skipped, e.g. during a fast scroll
+    private static final int MAX_PENDING_TEXTS = 40;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final LruCache<Long, Entry> mCache = new LruCache<>(MAX_CACHED_TEXTS);
+    // The words whose texts are being precomputed
+    private final LongHashSet mPendingIds = new LongHashSet();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // The parameters of the text view where the texts are shown
+    private PrecomputedTextCompat.Params mParams;
+
+    boolean hasParams() {
+        return mParams != null;
+    }
+
+    /**
+     * Sets the parameters of the text view. The texts precomputed with the other parameters are removed,
+     * since they cannot be shown in the text view
+     */
+    void setParams(PrecomputedTextCompat.Params params) {
+        if (!params.equals(mParams)) {
+            mParams = params;
+            mCache.evictAll();
+        }
+    }
+
+    /**
+     * @param textHash The hash of the text computed by {@link #hash(CharArrayBuffer)}
+     * @return Returns the precomputed text of the word or null if it is not ready
+     */
+    @Nullable
+    PrecomputedTextCompat get(long id, int textHash) {
+        Entry entry = mCache.get(id);
+        return entry != null && entry.mTextHash == textHash ? entry.mText : null;
+    }
+
+    /**
+     * Whether the text of the word should be precomputed, i.e. it is neither ready nor being precomputed
+     */
+    boolean needs(long id, int textHash) {
+        return mParams != null
+                && mPendingIds.size() < MAX_PENDING_TEXTS
+                && !mPendingIds.contains(id)
+                && get(id, textHash) == null;
+    }
+
+    void precompute(long id, String text) {
+        PrecomputedTextCompat.Params params = mParams;
+        mPendingIds.add(id);
+        EXECUTOR.execute(() -> {
+            PrecomputedTextCompat precomputed = PrecomputedTextCompat.create(text, params);
+            mMainHandler.post(() -> {
+                mPendingIds.remove(id);
+                // The text is dropped if the text view has changed in the meantime
+                if (params.equals(mParams)) {
+                    mCache.put(id, new Entry(text.hashCode(), precomputed));
+                }
+            });
+        });
+    }
+
+    /**
+     * Computes the hash of the text in the buffer in the same way as {@link String#hashCode()},
+     * so the text is not copied to a string
+     */
+    static int hash(CharArrayBuffer buffer) {
+        int hash = 0;
+        for (int i = 0; i < buffer.sizeCopied; i++) {
+            hash = 31 * hash + buffer.data[i];
+        }
+        return hash;
+    }
+
+    private static class Entry {
+
+        final int mTextHash;
+        final PrecomputedTextCompat mText;
+
+        Entry(int textHash, PrecomputedTextCompat text) {
+            mTextHash = textHash;
+            mText = text;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
+import com.akhbulatov.wordkeeper.model.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Keeps all categories in memory, so the screens read them without querying the database.
+ * The categories are loaded in the background and loaded again when {@link ChangeBus}
+ * publishes a change of the categories. Each load creates a new snapshot which replaces
+ * the previous one at once, so a reader always sees a complete list.
+ * The snapshot is passed to a listener, which waits for the first load instead of reading
+ * the database on the main thread when the snapshot is requested right after the start
+ */
+public final class CategoryCatalog {
+
+    private static CategoryCatalog sInstance;
+
+    private final CategoryDatabaseAdapter mCategoryDbAdapter;
+    // Loads the snapshots one after another, so the last one contains the last change
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private volatile Snapshot mSnapshot;
+    // The listeners waiting for the first snapshot, guarded by this
+    private final List<SnapshotListener> mPendingListeners = new ArrayList<>();
+
+    public static synchronized CategoryCatalog getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new CategoryCatalog(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private CategoryCatalog(Context context) {
+        mCategoryDbAdapter = new CategoryDatabaseAdapter(context);
+        ChangeBus.getInstance().subscribeSync(ChangeBus.forTables(CategoryEntry.TABLE_NAME),
+                events -> reload());
+        reload();
+    }
+
+    /**
+     * Passes the current snapshot to the listener. The snapshot is loaded when the app starts,
+     * so the listener is called at once, or on the main thread after the first load
+     * if the snapshot is requested earlier. Should be called on the main thread
+     */
+    public void getSnapshot(SnapshotListener listener) {
+        Snapshot snapshot = mSnapshot;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (mSnapshot == null) {
+                    mPendingListeners.add(listener);
+                    return;
+                }
+                snapshot = mSnapshot;
+            }
+        }
+        listener.onSnapshotLoaded(snapshot);
+    }
+
+    private void reload() {
+        mExecutor.execute(() -> {
+            Snapshot snapshot = load();
+            List<SnapshotListener> listeners;
+            synchronized (this) {
+                mSnapshot = snapshot;
+                listeners = new ArrayList<>(mPendingListeners);
+                mPendingListeners.clear();
+            }
+            if (!listeners.isEmpty()) {
+                // Passes the last snapshot, since the categories could be loaded again meanwhile
+                mMainHandler.post(() -> {
+                    for (SnapshotListener listener : listeners) {
+                        listener.onSnapshotLoaded(mSnapshot);
+                    }
+                });
+            }
+        });
+    }
+
+    private Snapshot load() {
+        Cursor cursor = mCategoryDbAdapter.getAll();
+        try {
+            return new Snapshot(Category.getCategories(cursor));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * The categories at the moment of the load. Is never changed
+     */
+    public static final class Snapshot {
+
+        private final List<Category> mCategories;
+
+        Snapshot(List<Category> categories) {
+            mCategories = Collections.unmodifiableList(new ArrayList<>(categories));
+        }
+
+        /**
+         * @return Returns the categories in the order of the table.
+         * Neither the list nor the categories must be changed
+         */
+        public List<Category> getCategories() {
+            return mCategories;
+        }
+
+        @Nullable
+        public String getName(long id) {
+            for (Category category : mCategories) {
+                if (category.getId() == id) {
+                    return category.getName();
+                }
+            }
+            return null;
+        }
+    }
+
+    public interface SnapshotListener {
+        void onSnapshotLoaded(Snapshot snapshot);
+    }
+}
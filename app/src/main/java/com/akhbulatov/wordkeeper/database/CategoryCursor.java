@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
+
+/**
+ * Reads the columns of the categories from a cursor by the typed methods.
+ * The positions of the columns are found once for the cursor instead of for each row.
+ * The cursor contains the ID and the name of the categories, the number of words is optional
+ */
+public class CategoryCursor extends CursorWrapper {
+
+    private final int mIdColumn;
+    private final int mNameColumn;
+    private final int mWordCountColumn;
+
+    public CategoryCursor(Cursor cursor) {
+        super(cursor);
+        mIdColumn = cursor.getColumnIndexOrThrow(CategoryEntry._ID);
+        mNameColumn = cursor.getColumnIndexOrThrow(CategoryEntry.COLUMN_NAME);
+        mWordCountColumn = cursor.getColumnIndex(CategoryEntry.COLUMN_WORD_COUNT);
+    }
+
+    public long getId() {
+        return getLong(mIdColumn);
+    }
+
+    public String getName() {
+        return getString(mNameColumn);
+    }
+
+    public int getWordCount() {
+        if (mWordCountColumn == -1) {
+            throw new IllegalStateException("The cursor has no number of words of the categories");
+        }
+        return getInt(mWordCountColumn);
+    }
+
+    /**
+     * Copies the name to the buffer, which is reused for the next rows instead of creating a string
+     */
+    public void copyNameToBuffer(CharArrayBuffer buffer) {
+        copyStringToBuffer(mNameColumn, buffer);
+    }
+}
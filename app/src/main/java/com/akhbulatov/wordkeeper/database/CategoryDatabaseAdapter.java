@@ -22,9 +22,12 @@ import android.database.Cursor;
 import android.util.Log;
 
 import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
 import com.akhbulatov.wordkeeper.database.dao.CategoryDao;
 import com.akhbulatov.wordkeeper.model.Category;
 
+import androidx.lifecycle.LiveData;
+
 /**
  * @author Alidibir Akhbulatov
  * @since 18.09.2016
@@ -44,13 +47,13 @@ public class CategoryDatabaseAdapter extends DatabaseAdapter implements Category
     @Override
     public long insert(Category category) {
         ContentValues values = createContentValues(category);
-        return mDatabase.insert(CategoryEntry.TABLE_NAME, null, values);
+        return getDatabase().insert(CategoryEntry.TABLE_NAME, null, values);
     }
 
     @Override
     public int update(Category category) {
         ContentValues values = createContentValues(category);
-        return mDatabase.update(CategoryEntry.TABLE_NAME,
+        return getDatabase().update(CategoryEntry.TABLE_NAME,
                 values,
                 CategoryEntry._ID + " = ?",
                 new String[]{String.valueOf(category.getId())});
@@ -58,14 +61,14 @@ public class CategoryDatabaseAdapter extends DatabaseAdapter implements Category
 
     @Override
     public int delete(Category category) {
-        return mDatabase.delete(CategoryEntry.TABLE_NAME,
+        return getDatabase().delete(CategoryEntry.TABLE_NAME,
                 CategoryEntry._ID + " = ?",
                 new String[]{String.valueOf(category.getId())});
     }
 
     @Override
     public Cursor getAll() {
-        Cursor cursor = mDatabase.query(CategoryEntry.TABLE_NAME,
+        Cursor cursor = getDatabase().query(CategoryEntry.TABLE_NAME,
                 new String[]{CategoryEntry._ID, CategoryEntry.COLUMN_NAME},
                 null, null, null, null, null);
 
@@ -75,19 +78,53 @@ public class CategoryDatabaseAdapter extends DatabaseAdapter implements Category
         return cursor;
     }
 
+    @Override
+    public Cursor getAllWithCounts() {
+        Cursor cursor = getDatabase().rawQuery(DatabaseContract.SQL_SELECT_CATEGORIES_WITH_WORD_COUNT, null);
+
+        if (cursor != null) {
+            cursor.moveToFirst();
+        }
+        return cursor;
+    }
+
+    @Override
+    public LiveData<QueryResult> observeAllWithCounts() {
+        return QueryLiveData.obtain(CategoryEntry.TABLE_NAME + "?with_counts",
+                CategoryDatabaseAdapter::affectsCategoriesWithCounts,
+                cancellationSignal -> getAllWithCounts());
+    }
+
     @Override
     public Category get(long id) {
+        EntityCache<Category> cache = EntityCache.getCategories();
+        Category category = cache.get(id);
+        if (category == null) {
+            long generation = cache.getGeneration();
+            category = query(id);
+            if (category.getId() != id) {
+                // The category does not exist
+                return category;
+            }
+            cache.put(id, category, generation);
+        }
+        // The cached category must not be changed, so a copy is returned
+        return new Category(category.getId(), category.getName());
+    }
+
+    private Category query(long id) {
         Category category = null;
-        Cursor cursor = mDatabase.query(true, CategoryEntry.TABLE_NAME,
+        Cursor cursor = getDatabase().query(true, CategoryEntry.TABLE_NAME,
                 new String[]{CategoryEntry._ID, CategoryEntry.COLUMN_NAME},
                 CategoryEntry._ID + " = " + id,
                 null, null, null, null, null);
 
         try {
-            cursor.moveToFirst();
+            CategoryCursor categoryCursor = new CategoryCursor(cursor);
+            categoryCursor.moveToFirst();
             category = new Category();
-            category.setId(cursor.getLong(cursor.getColumnIndex(CategoryEntry._ID)));
-            category.setName(cursor.getString(cursor.getColumnIndex(CategoryEntry.COLUMN_NAME)));
+            category.setId(categoryCursor.getId());
+            category.setName(categoryCursor.getName());
         } catch (Exception e) {
             Log.e(TAG, "Could not get the record");
         } finally {
@@ -98,6 +135,16 @@ public class CategoryDatabaseAdapter extends DatabaseAdapter implements Category
         return category;
     }
 
+    // The words change the numbers of words of the categories only when they are added,
+    // deleted or moved to another category
+    private static boolean affectsCategoriesWithCounts(ChangeEvent event) {
+        if (CategoryEntry.TABLE_NAME.equals(event.getTable())) {
+            return true;
+        }
+        return WordEntry.TABLE_NAME.equals(event.getTable())
+                && event.touchesColumn(WordEntry.COLUMN_CATEGORY_ID);
+    }
+
     private ContentValues createContentValues(Category category) {
         ContentValues values = new ContentValues();
         values.put(CategoryEntry.COLUMN_NAME, category.getName());
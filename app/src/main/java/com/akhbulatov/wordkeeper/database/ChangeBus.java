@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Publishes the changes of the tables after they are committed by {@link DatabaseWriter}.
+ * The observers receive only the changes accepted by their filters.
+ * The synchronous observers are called on the thread of the writer right after the commit.
+ * The observers on the main thread are called at most once per frame
+ * with all changes made since the previous frame, so a burst of writes causes one refresh
+ */
+public final class ChangeBus {
+
+    private static ChangeBus sInstance;
+
+    private final List<Subscription> mSyncSubscriptions = new CopyOnWriteArrayList<>();
+    // Increases with each published transaction
+    private volatile long mVersion;
+
+    // Used only on the main thread
+    private final List<Subscription> mSubscriptions = new ArrayList<>();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer.FrameCallback mFrameCallback = frameTimeNanos -> dispatchPending();
+    private boolean mFrameScheduled;
+
+    public static synchronized ChangeBus getInstance() {
+        if (sInstance == null) {
+            sInstance = new ChangeBus();
+        }
+        return sInstance;
+    }
+
+    private ChangeBus() {
+    }
+
+    /**
+     * @return Returns the filter accepting all changes of the tables
+     */
+    public static ChangeFilter forTables(String... tables) {
+        return event -> {
+            for (String table : tables) {
+                if (table.equals(event.getTable())) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Subscribes the observer called on the thread of the writer.
+     * The observer must be fast, since the next writes wait for it
+     */
+    public void subscribeSync(ChangeFilter filter, ChangeObserver observer) {
+        mSyncSubscriptions.add(new Subscription(filter, observer));
+    }
+
+    public void unsubscribeSync(ChangeObserver observer) {
+        for (Subscription subscription : mSyncSubscriptions) {
+            if (subscription.mObserver == observer) {
+                mSyncSubscriptions.remove(subscription);
+            }
+        }
+    }
+
+    /**
+     * Subscribes the observer called on the main thread. Should be called on the main thread
+     */
+    public void subscribe(ChangeFilter filter, ChangeObserver observer) {
+        mSubscriptions.add(new Subscription(filter, observer));
+    }
+
+    public void unsubscribe(ChangeObserver observer) {
+        for (int i = mSubscriptions.size() - 1; i >= 0; i--) {
+            if (mSubscriptions.get(i).mObserver == observer) {
+                mSubscriptions.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the published transactions. A query that has not observed the changes
+     * for some time compares it with the version it was executed at to know whether it is outdated
+     */
+    public long getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Publishes the changes of the committed transaction. Called on the thread of the writer
+     */
+    void publish(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        mVersion++;
+        for (Subscription subscription : mSyncSubscriptions) {
+            List<ChangeEvent> accepted = subscription.accept(events);
+            if (!accepted.isEmpty()) {
+                subscription.mObserver.onChanged(accepted);
+            }
+        }
+        mMainHandler.post(() -> {
+            for (Subscription subscription : mSubscriptions) {
+                subscription.mPendingEvents.addAll(subscription.accept(events));
+            }
+            if (!mFrameScheduled) {
+                mFrameScheduled = true;
+                Choreographer.getInstance().postFrameCallback(mFrameCallback);
+            }
+        });
+    }
+
+    private void dispatchPending() {
+        mFrameScheduled = false;
+        // Copies the subscriptions, since an observer can unsubscribe
+        for (Subscription subscription : new ArrayList<>(mSubscriptions)) {
+            if (!subscription.mPendingEvents.isEmpty()) {
+                List<ChangeEvent> events = new ArrayList<>(subscription.mPendingEvents);
+                subscription.mPendingEvents.clear();
+                subscription.mObserver.onChanged(events);
+            }
+        }
+    }
+
+    public interface ChangeFilter {
+        boolean accept(ChangeEvent event);
+    }
+
+    public interface ChangeObserver {
+        void onChanged(List<ChangeEvent> events);
+    }
+
+    private static class Subscription {
+
+        final ChangeFilter mFilter;
+        final ChangeObserver mObserver;
+        // The changes not delivered yet, used only on the main thread
+        final List<ChangeEvent> mPendingEvents = new ArrayList<>();
+
+        Subscription(ChangeFilter filter, ChangeObserver observer) {
+            mFilter = filter;
+            mObserver = observer;
+        }
+
+        List<ChangeEvent> accept(List<ChangeEvent> events) {
+            List<ChangeEvent> accepted = null;
+            for (ChangeEvent event : events) {
+                if (mFilter.accept(event)) {
+                    if (accepted == null) {
+                        accepted = new ArrayList<>();
+                    }
+                    accepted.add(event);
+                }
+            }
+            return accepted != null ? accepted : Collections.emptyList();
+        }
+    }
+}
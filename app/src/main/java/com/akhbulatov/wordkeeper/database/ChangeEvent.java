@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Describes a committed change of a table: which rows have been inserted, updated or deleted
+ */
+public final class ChangeEvent {
+
+    public static final int INSERT = 0;
+    public static final int UPDATE = 1;
+    public static final int DELETE = 2;
+
+    private final String mTable;
+    private final int mKind;
+    private final long[] mIds;
+    private final String[] mColumns;
+
+    /**
+     * @param ids     The IDs of the changed rows or null if they are not known
+     * @param columns The updated columns or null if all of them could be changed
+     */
+    public ChangeEvent(String table, int kind, @Nullable long[] ids, @Nullable String... columns) {
+        mTable = table;
+        mKind = kind;
+        mIds = ids;
+        mColumns = columns != null && columns.length > 0 ? columns : null;
+    }
+
+    public String getTable() {
+        return mTable;
+    }
+
+    public int getKind() {
+        return mKind;
+    }
+
+    /**
+     * @return Returns the IDs of the changed rows or null if they are not known
+     */
+    @Nullable
+    public long[] getIds() {
+        return mIds;
+    }
+
+    /**
+     * Checks whether the column could be changed. The inserted and deleted rows change all columns
+     */
+    public boolean touchesColumn(String column) {
+        if (mKind != UPDATE || mColumns == null) {
+            return true;
+        }
+        for (String changedColumn : mColumns) {
+            if (changedColumn.equals(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the changes made by the writes of one transaction.
+ * The changes are published by {@link ChangeBus} only after the transaction is committed
+ */
+public final class ChangeSet {
+
+    private final List<ChangeEvent> mEvents = new ArrayList<>();
+
+    ChangeSet() {
+    }
+
+    public void add(ChangeEvent event) {
+        mEvents.add(event);
+    }
+
+    List<ChangeEvent> getEvents() {
+        return mEvents;
+    }
+}
@@ -21,24 +21,25 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 
 /**
- * Provides common functionality needed for all databases
+ * Provides common functionality needed for all databases.
+ * Borrows the connection shared by the whole app, so the adapters are not opened and closed.
+ * The connection is requested by the first query instead of the constructor, so an adapter
+ * created on the main thread does not open and upgrade the database there
  */
 public abstract class DatabaseAdapter {
 
-    private Context mContext;
-    private DatabaseHelper mDbHelper;
-    protected SQLiteDatabase mDatabase;
+    private final DatabaseHelper mDatabaseHelper;
 
     public DatabaseAdapter(Context context) {
-        mContext = context;
+        mDatabaseHelper = DatabaseHelper.getInstance(context);
     }
 
-    public void open() throws SQLException {
-        mDbHelper = new DatabaseHelper(mContext);
-        mDatabase = mDbHelper.getWritableDatabase();
-    }
-
-    public void close() {
-        mDbHelper.close();
+    /**
+     * Returns the shared connection, which is opened on the calling thread the first time
+     *
+     * @throws SQLException If the database cannot be opened
+     */
+    protected SQLiteDatabase getDatabase() throws SQLException {
+        return mDatabaseHelper.getWritableDatabase();
     }
 }
@@ -33,15 +33,301 @@ public final class DatabaseContract {
             + " ADD COLUMN " + WordEntry.COLUMN_DATETIME + " INTEGER;";
     static final String SQL_WORD_ADD_COLUMN_CATEGORY = "ALTER TABLE " + WordEntry.TABLE_NAME
             + " ADD COLUMN " + WordEntry.COLUMN_CATEGORY + " TEXT;";
+    static final String SQL_WORD_ADD_COLUMN_NAME_SORT_KEY = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_NAME_SORT_KEY + " BLOB;";
+    static final String SQL_WORD_ADD_COLUMN_NAME_NORMALIZED = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_NAME_NORMALIZED + " TEXT;";
+    static final String SQL_WORD_ADD_COLUMN_TRANSLATION_NORMALIZED = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_TRANSLATION_NORMALIZED + " TEXT;";
+    // The review state of the words. The new words are due at once and have no stability yet
+    static final String SQL_WORD_ADD_COLUMN_DUE = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_DUE + " INTEGER NOT NULL DEFAULT 0;";
+    static final String SQL_WORD_ADD_COLUMN_STABILITY = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_STABILITY + " REAL NOT NULL DEFAULT 0;";
+    static final String SQL_WORD_ADD_COLUMN_DIFFICULTY = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_DIFFICULTY + " REAL NOT NULL DEFAULT 0;";
+    static final String SQL_WORD_ADD_COLUMN_LAPSES = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_LAPSES + " INTEGER NOT NULL DEFAULT 0;";
+    static final String SQL_WORD_ADD_COLUMN_CATEGORY_ID = "ALTER TABLE " + WordEntry.TABLE_NAME
+            + " ADD COLUMN " + WordEntry.COLUMN_CATEGORY_ID + " INTEGER"
+            + " REFERENCES " + CategoryEntry.TABLE_NAME + "(" + CategoryEntry._ID + ")"
+            + " ON DELETE CASCADE;";
 
-    static final String SQL_WORD_ORDER_BY_NAME = WordEntry.COLUMN_NAME + " COLLATE NOCASE";
+    // Links all words to their categories by ID in one statement
+    // and clears the name of the category which is no longer used
+    static final String SQL_WORD_FILL_COLUMN_CATEGORY_ID = "UPDATE " + WordEntry.TABLE_NAME
+            + " SET " + WordEntry.COLUMN_CATEGORY_ID + " = (SELECT " + CategoryEntry._ID
+            + " FROM " + CategoryEntry.TABLE_NAME
+            + " WHERE " + CategoryEntry.TABLE_NAME + "." + CategoryEntry.COLUMN_NAME
+            + " = " + WordEntry.TABLE_NAME + "." + WordEntry.COLUMN_CATEGORY + "), "
+            + WordEntry.COLUMN_CATEGORY + " = NULL"
+            + " WHERE " + WordEntry.COLUMN_CATEGORY + " IS NOT NULL;";
+
+    private static final String SQL_WORD_FTS_DELETE_OLD = "DELETE FROM " + WordFtsEntry.TABLE_NAME
+            + " WHERE " + WordFtsEntry.COLUMN_DOCID + " = old." + WordEntry._ID + ";";
+    private static final String SQL_WORD_FTS_INSERT_NEW = "INSERT INTO " + WordFtsEntry.TABLE_NAME
+            + "(" + WordFtsEntry.COLUMN_DOCID + ", " + WordEntry.COLUMN_NAME + ", " + WordEntry.COLUMN_TRANSLATION + ")"
+            + " VALUES(new." + WordEntry._ID + ", new." + WordEntry.COLUMN_NAME
+            + ", new." + WordEntry.COLUMN_TRANSLATION + ");";
+    // Since the version 10 of the database the full-text index contains the normalized columns
+    private static final String SQL_WORD_FTS_NORMALIZED_INSERT_NEW = "INSERT INTO " + WordFtsEntry.TABLE_NAME
+            + "(" + WordFtsEntry.COLUMN_DOCID + ", " + WordEntry.COLUMN_NAME_NORMALIZED
+            + ", " + WordEntry.COLUMN_TRANSLATION_NORMALIZED + ")"
+            + " VALUES(new." + WordEntry._ID + ", new." + WordEntry.COLUMN_NAME_NORMALIZED
+            + ", new." + WordEntry.COLUMN_TRANSLATION_NORMALIZED + ");";
+    // The index is updated only when the indexed columns are changed,
+    // e.g. moving the words to another category does not touch it
+    private static final String SQL_WORD_FTS_NORMALIZED_UPDATE_OF = " UPDATE OF "
+            + WordEntry.COLUMN_NAME_NORMALIZED + ", " + WordEntry.COLUMN_TRANSLATION_NORMALIZED;
+
+    // The words are sorted by name with the collation keys of the names,
+    // so the order is correct for any language and the index is used as is
+    static final String SQL_WORD_ORDER_BY_NAME = WordEntry.COLUMN_NAME_SORT_KEY;
     static final String SQL_WORD_ORDER_BY_DATETIME = WordEntry.COLUMN_DATETIME + " DESC";
 
+    // The indexes match the sort modes of the words, so the sorting does not require a temporary B-tree
+    static final String SQL_CREATE_WORD_NAME_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_NAME + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_NAME + " COLLATE NOCASE);";
+    static final String SQL_DROP_WORD_NAME_INDEX = "DROP INDEX IF EXISTS " + WordEntry.INDEX_NAME + ";";
+    static final String SQL_CREATE_WORD_NAME_SORT_KEY_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_NAME_SORT_KEY + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_NAME_SORT_KEY + ");";
+    static final String SQL_DROP_WORD_NAME_SORT_KEY_INDEX =
+            "DROP INDEX IF EXISTS " + WordEntry.INDEX_NAME_SORT_KEY + ";";
+    // Contains the ID and the time of the change, so the pages of words get the IDs and the times
+    // of all words in the order of the names from the index alone, as from the index of the time
+    static final String SQL_CREATE_WORD_NAME_SORT_KEY_DATETIME_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_NAME_SORT_KEY_DATETIME + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_NAME_SORT_KEY + ", " + WordEntry._ID + ", "
+                    + WordEntry.COLUMN_DATETIME + ");";
+    static final String SQL_CREATE_WORD_DATETIME_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_DATETIME + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_DATETIME + ");";
+    // The words due for review are read as a range of the index
+    static final String SQL_CREATE_WORD_DUE_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_DUE + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_DUE + ");";
+
     static final String SQL_CREATE_CATEGORY_ENTRIES =
             "CREATE TABLE " + CategoryEntry.TABLE_NAME + " ("
                     + CategoryEntry._ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
                     + CategoryEntry.COLUMN_NAME + " TEXT);";
 
+    // The full-text index uses the table "Words" as its external content,
+    // so only the index itself is stored and the triggers below keep it in sync
+    static final String SQL_CREATE_WORD_FTS_ENTRIES =
+            "CREATE VIRTUAL TABLE " + WordFtsEntry.TABLE_NAME + " USING fts4("
+                    + "content=\"" + WordEntry.TABLE_NAME + "\", "
+                    + WordEntry.COLUMN_NAME + ", "
+                    + WordEntry.COLUMN_TRANSLATION + ");";
+    static final String SQL_REBUILD_WORD_FTS_ENTRIES = "INSERT INTO " + WordFtsEntry.TABLE_NAME
+            + "(" + WordFtsEntry.TABLE_NAME + ") VALUES('rebuild');";
+
+    static final String SQL_CREATE_WORD_FTS_TRIGGER_BEFORE_UPDATE =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_BEFORE_UPDATE
+                    + " BEFORE UPDATE ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_DELETE_OLD + " END;";
+    static final String SQL_CREATE_WORD_FTS_TRIGGER_BEFORE_DELETE =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_BEFORE_DELETE
+                    + " BEFORE DELETE ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_DELETE_OLD + " END;";
+    static final String SQL_CREATE_WORD_FTS_TRIGGER_AFTER_UPDATE =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_AFTER_UPDATE
+                    + " AFTER UPDATE ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_INSERT_NEW + " END;";
+    static final String SQL_CREATE_WORD_FTS_TRIGGER_AFTER_INSERT =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_AFTER_INSERT
+                    + " AFTER INSERT ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_INSERT_NEW + " END;";
+
+    static final String SQL_DROP_WORD_FTS_TRIGGER_BEFORE_UPDATE =
+            "DROP TRIGGER IF EXISTS " + WordFtsEntry.TRIGGER_BEFORE_UPDATE + ";";
+    static final String SQL_DROP_WORD_FTS_TRIGGER_BEFORE_DELETE =
+            "DROP TRIGGER IF EXISTS " + WordFtsEntry.TRIGGER_BEFORE_DELETE + ";";
+    static final String SQL_DROP_WORD_FTS_TRIGGER_AFTER_UPDATE =
+            "DROP TRIGGER IF EXISTS " + WordFtsEntry.TRIGGER_AFTER_UPDATE + ";";
+    static final String SQL_DROP_WORD_FTS_TRIGGER_AFTER_INSERT =
+            "DROP TRIGGER IF EXISTS " + WordFtsEntry.TRIGGER_AFTER_INSERT + ";";
+    static final String SQL_DROP_WORD_FTS_ENTRIES = "DROP TABLE IF EXISTS " + WordFtsEntry.TABLE_NAME + ";";
+
+    // The full-text index of the normalized columns, which the search queries are matched against
+    static final String SQL_CREATE_WORD_FTS_NORMALIZED_ENTRIES =
+            "CREATE VIRTUAL TABLE " + WordFtsEntry.TABLE_NAME + " USING fts4("
+                    + "content=\"" + WordEntry.TABLE_NAME + "\", "
+                    + WordEntry.COLUMN_NAME_NORMALIZED + ", "
+                    + WordEntry.COLUMN_TRANSLATION_NORMALIZED + ");";
+
+    static final String SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_BEFORE_UPDATE =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_BEFORE_UPDATE
+                    + " BEFORE" + SQL_WORD_FTS_NORMALIZED_UPDATE_OF + " ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_DELETE_OLD + " END;";
+    static final String SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_BEFORE_DELETE =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_BEFORE_DELETE
+                    + " BEFORE DELETE ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_DELETE_OLD + " END;";
+    static final String SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_AFTER_UPDATE =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_AFTER_UPDATE
+                    + " AFTER" + SQL_WORD_FTS_NORMALIZED_UPDATE_OF + " ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_NORMALIZED_INSERT_NEW + " END;";
+    static final String SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_AFTER_INSERT =
+            "CREATE TRIGGER " + WordFtsEntry.TRIGGER_AFTER_INSERT
+                    + " AFTER INSERT ON " + WordEntry.TABLE_NAME + " BEGIN "
+                    + SQL_WORD_FTS_NORMALIZED_INSERT_NEW + " END;";
+
+    static final String SQL_CREATE_WORD_CATEGORY_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_CATEGORY + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_CATEGORY + ");";
+    static final String SQL_DROP_WORD_CATEGORY_INDEX = "DROP INDEX IF EXISTS " + WordEntry.INDEX_CATEGORY + ";";
+    static final String SQL_CREATE_WORD_CATEGORY_ID_INDEX =
+            "CREATE INDEX " + WordEntry.INDEX_CATEGORY_ID + " ON " + WordEntry.TABLE_NAME
+                    + " (" + WordEntry.COLUMN_CATEGORY_ID + ");";
+
+    // Counts the words of each category in one pass over the index of the words by category
+    static final String SQL_SELECT_CATEGORIES_WITH_WORD_COUNT =
+            "SELECT c." + CategoryEntry._ID + ", c." + CategoryEntry.COLUMN_NAME
+                    + ", COUNT(w." + WordEntry._ID + ") AS " + CategoryEntry.COLUMN_WORD_COUNT
+                    + " FROM " + CategoryEntry.TABLE_NAME + " c"
+                    + " LEFT JOIN " + WordEntry.TABLE_NAME + " w"
+                    + " ON w." + WordEntry.COLUMN_CATEGORY_ID + " = c." + CategoryEntry._ID
+                    + " GROUP BY c." + CategoryEntry._ID + ";";
+
+    // The order of the pages of words. The ID of the word breaks ties of the sort value,
+    // so the order is strict, and the IDs and the times in both orders are read from the indexes alone
+    static final String SQL_WORD_PAGE_ORDER_BY_NAME =
+            SQL_WORD_ORDER_BY_NAME + ", " + WordEntry._ID;
+    static final String SQL_WORD_PAGE_ORDER_BY_DATETIME =
+            WordEntry.COLUMN_DATETIME + " DESC, " + WordEntry._ID + " DESC";
+
+    // The old words without a name or a time get empty values, so the lists never show NULL values
+    static final String SQL_WORD_FILL_EMPTY_NAME = "UPDATE " + WordEntry.TABLE_NAME
+            + " SET " + WordEntry.COLUMN_NAME + " = ''"
+            + " WHERE " + WordEntry.COLUMN_NAME + " IS NULL;";
+    static final String SQL_WORD_FILL_EMPTY_DATETIME = "UPDATE " + WordEntry.TABLE_NAME
+            + " SET " + WordEntry.COLUMN_DATETIME + " = 0"
+            + " WHERE " + WordEntry.COLUMN_DATETIME + " IS NULL;";
+
+    // Statements for the batch operations on the words,
+    // compiled once and executed for each word in one transaction
+    static final String SQL_INSERT_WORD = "INSERT INTO " + WordEntry.TABLE_NAME + " ("
+            + WordEntry.COLUMN_NAME + ", "
+            + WordEntry.COLUMN_TRANSLATION + ", "
+            + WordEntry.COLUMN_DATETIME + ", "
+            + WordEntry.COLUMN_CATEGORY_ID + ", "
+            + WordEntry.COLUMN_NAME_SORT_KEY + ", "
+            + WordEntry.COLUMN_NAME_NORMALIZED + ", "
+            + WordEntry.COLUMN_TRANSLATION_NORMALIZED + ") VALUES (?, ?, ?, ?, ?, ?, ?);";
+    static final String SQL_UPDATE_WORD = "UPDATE " + WordEntry.TABLE_NAME + " SET "
+            + WordEntry.COLUMN_NAME + " = ?, "
+            + WordEntry.COLUMN_TRANSLATION + " = ?, "
+            + WordEntry.COLUMN_DATETIME + " = ?, "
+            + WordEntry.COLUMN_CATEGORY_ID + " = ?, "
+            + WordEntry.COLUMN_NAME_SORT_KEY + " = ?, "
+            + WordEntry.COLUMN_NAME_NORMALIZED + " = ?, "
+            + WordEntry.COLUMN_TRANSLATION_NORMALIZED + " = ?"
+            + " WHERE " + WordEntry._ID + " = ?;";
+    static final String SQL_UPDATE_WORD_NAME_SORT_KEY = "UPDATE " + WordEntry.TABLE_NAME + " SET "
+            + WordEntry.COLUMN_NAME_SORT_KEY + " = ?"
+            + " WHERE " + WordEntry._ID + " = ?;";
+    static final String SQL_UPDATE_WORD_NORMALIZED = "UPDATE " + WordEntry.TABLE_NAME + " SET "
+            + WordEntry.COLUMN_NAME_NORMALIZED + " = ?, "
+            + WordEntry.COLUMN_TRANSLATION_NORMALIZED + " = ?"
+            + " WHERE " + WordEntry._ID + " = ?;";
+    static final String SQL_DELETE_WORD = "DELETE FROM " + WordEntry.TABLE_NAME
+            + " WHERE " + WordEntry._ID + " = ?;";
+    static final String SQL_MOVE_WORD = "UPDATE " + WordEntry.TABLE_NAME + " SET "
+            + WordEntry.COLUMN_CATEGORY_ID + " = ?, "
+            + WordEntry.COLUMN_DATETIME + " = ?"
+            + " WHERE " + WordEntry._ID + " = ?;";
+
+    // The beginning of the translation shown in the lists of words instead of the whole text,
+    // which can be long. The column keeps the name of the translation.
+    // Measured with the desktop SQLite on 100,000 words with 2 KB translations: a row of the lists
+    // takes about 2,100 bytes of a cursor window with the whole translation and 250 bytes with the preview,
+    // so a 2 MB window holds about 1,000 or 8,400 rows, a cursor of all words fills its window
+    // 150 or 18 times for a full scroll and a page of WordPagedCursor takes 205 or 24 KB
+    static final int WORD_TRANSLATION_PREVIEW_LENGTH = 200;
+    static final String SQL_WORD_TRANSLATION_PREVIEW = "substr(" + WordEntry.COLUMN_TRANSLATION
+            + ", 1, " + WORD_TRANSLATION_PREVIEW_LENGTH + ") AS " + WordEntry.COLUMN_TRANSLATION;
+
+    // Selects the words due for review at the time passed as an argument.
+    // The index of the due time contains the ID, so it also gives the order of the words
+    static final String SQL_WORD_DUE = WordEntry.COLUMN_DUE + " <= ?";
+    static final String SQL_WORD_ORDER_BY_DUE = WordEntry.COLUMN_DUE + ", " + WordEntry._ID;
+    static final String SQL_UPDATE_WORD_REVIEW = "UPDATE " + WordEntry.TABLE_NAME + " SET "
+            + WordEntry.COLUMN_DUE + " = ?, "
+            + WordEntry.COLUMN_STABILITY + " = ?, "
+            + WordEntry.COLUMN_DIFFICULTY + " = ?, "
+            + WordEntry.COLUMN_LAPSES + " = ?"
+            + " WHERE " + WordEntry._ID + " = ?;";
+
+    // The log of the reviews. Only the recent reviews are kept one row per review,
+    // the older ones are compacted into one row per word and day
+    static final String SQL_CREATE_REVIEW_LOG_ENTRIES =
+            "CREATE TABLE " + ReviewLogEntry.TABLE_NAME + " ("
+                    + ReviewLogEntry._ID + " INTEGER PRIMARY KEY, "
+                    + ReviewLogEntry.COLUMN_WORD_ID + " INTEGER NOT NULL"
+                    + " REFERENCES " + WordEntry.TABLE_NAME + "(" + WordEntry._ID + ")"
+                    + " ON DELETE CASCADE, "
+                    + ReviewLogEntry.COLUMN_TIME + " INTEGER NOT NULL, "
+                    + ReviewLogEntry.COLUMN_GRADE + " INTEGER NOT NULL, "
+                    + ReviewLogEntry.COLUMN_ELAPSED + " INTEGER NOT NULL);";
+    // The history of a word is read as a range of the first index and the reviews
+    // of a period as a range of the second one. The first index also serves the cascade
+    // deleting the reviews of a deleted word
+    static final String SQL_CREATE_REVIEW_LOG_WORD_ID_INDEX =
+            "CREATE INDEX " + ReviewLogEntry.INDEX_WORD_ID + " ON " + ReviewLogEntry.TABLE_NAME
+                    + " (" + ReviewLogEntry.COLUMN_WORD_ID + ", " + ReviewLogEntry.COLUMN_TIME + ");";
+    static final String SQL_CREATE_REVIEW_LOG_TIME_INDEX =
+            "CREATE INDEX " + ReviewLogEntry.INDEX_TIME + " ON " + ReviewLogEntry.TABLE_NAME
+                    + " (" + ReviewLogEntry.COLUMN_TIME + ");";
+
+    // The primary key is the index of the history of a word
+    static final String SQL_CREATE_REVIEW_DAY_ENTRIES =
+            "CREATE TABLE " + ReviewDayEntry.TABLE_NAME + " ("
+                    + ReviewDayEntry.COLUMN_WORD_ID + " INTEGER NOT NULL"
+                    + " REFERENCES " + WordEntry.TABLE_NAME + "(" + WordEntry._ID + ")"
+                    + " ON DELETE CASCADE, "
+                    + ReviewDayEntry.COLUMN_DAY + " INTEGER NOT NULL, "
+                    + ReviewDayEntry.COLUMN_REVIEW_COUNT + " INTEGER NOT NULL, "
+                    + ReviewDayEntry.COLUMN_AGAIN_COUNT + " INTEGER NOT NULL, "
+                    + ReviewDayEntry.COLUMN_ELAPSED + " INTEGER NOT NULL, "
+                    + "PRIMARY KEY (" + ReviewDayEntry.COLUMN_WORD_ID + ", " + ReviewDayEntry.COLUMN_DAY + "));";
+    static final String SQL_CREATE_REVIEW_DAY_DAY_INDEX =
+            "CREATE INDEX " + ReviewDayEntry.INDEX_DAY + " ON " + ReviewDayEntry.TABLE_NAME
+                    + " (" + ReviewDayEntry.COLUMN_DAY + ");";
+
+    // The review is inserted only if its word still exists, so a word deleted before its reviews
+    // are saved does not fail the foreign key. The ID of the word is bound again as the last argument
+    static final String SQL_INSERT_REVIEW_LOG = "INSERT INTO " + ReviewLogEntry.TABLE_NAME + " ("
+            + ReviewLogEntry.COLUMN_WORD_ID + ", "
+            + ReviewLogEntry.COLUMN_TIME + ", "
+            + ReviewLogEntry.COLUMN_GRADE + ", "
+            + ReviewLogEntry.COLUMN_ELAPSED + ") SELECT ?, ?, ?, ?"
+            + " WHERE EXISTS (SELECT 1 FROM " + WordEntry.TABLE_NAME + " WHERE " + WordEntry._ID + " = ?);";
+
+    static final String SQL_DELETE_REVIEW_LOG_BEFORE = "DELETE FROM " + ReviewLogEntry.TABLE_NAME
+            + " WHERE " + ReviewLogEntry.COLUMN_TIME + " < ?;";
+
+    // Adds the sums to the row of the word and day, the row is inserted if the update changes nothing.
+    // Both statements take the sums followed by the word and the day
+    static final String SQL_UPDATE_REVIEW_DAY_ADD = "UPDATE " + ReviewDayEntry.TABLE_NAME + " SET "
+            + ReviewDayEntry.COLUMN_REVIEW_COUNT + " = " + ReviewDayEntry.COLUMN_REVIEW_COUNT + " + ?, "
+            + ReviewDayEntry.COLUMN_AGAIN_COUNT + " = " + ReviewDayEntry.COLUMN_AGAIN_COUNT + " + ?, "
+            + ReviewDayEntry.COLUMN_ELAPSED + " = " + ReviewDayEntry.COLUMN_ELAPSED + " + ?"
+            + " WHERE " + ReviewDayEntry.COLUMN_WORD_ID + " = ? AND " + ReviewDayEntry.COLUMN_DAY + " = ?;";
+    static final String SQL_INSERT_REVIEW_DAY = "INSERT INTO " + ReviewDayEntry.TABLE_NAME + " ("
+            + ReviewDayEntry.COLUMN_REVIEW_COUNT + ", "
+            + ReviewDayEntry.COLUMN_AGAIN_COUNT + ", "
+            + ReviewDayEntry.COLUMN_ELAPSED + ", "
+            + ReviewDayEntry.COLUMN_WORD_ID + ", "
+            + ReviewDayEntry.COLUMN_DAY + ") VALUES (?, ?, ?, ?, ?);";
+
+    // Selects the IDs of the words matching the FTS query passed as an argument
+    static final String SQL_WORD_MATCH = WordEntry._ID + " IN (SELECT " + WordFtsEntry.COLUMN_DOCID
+            + " FROM " + WordFtsEntry.TABLE_NAME
+            + " WHERE " + WordFtsEntry.TABLE_NAME + " MATCH ?)";
+
     // Prevents the initialization of an instance of the class contract
     private DatabaseContract() {
     }
@@ -52,12 +338,79 @@ public final class DatabaseContract {
         public static final String COLUMN_NAME = "name";
         public static final String COLUMN_TRANSLATION = "translation";
         public static final String COLUMN_DATETIME = "datetime";
-        public static final String COLUMN_CATEGORY = "category";
+        public static final String COLUMN_CATEGORY_ID = "category_id";
+        // The collation key of the name in the language of the device, the words are sorted by it
+        public static final String COLUMN_NAME_SORT_KEY = "name_sort_key";
+        // The name and the translation without accents and in lowercase, the search uses them
+        public static final String COLUMN_NAME_NORMALIZED = "name_normalized";
+        public static final String COLUMN_TRANSLATION_NORMALIZED = "translation_normalized";
+        // The time when the word should be reviewed next
+        public static final String COLUMN_DUE = "due";
+        // The number of days after which the word is recalled with the probability of 90%
+        public static final String COLUMN_STABILITY = "stability";
+        // How hard the word is to remember, from 1 to 10
+        public static final String COLUMN_DIFFICULTY = "difficulty";
+        // How many times the word has been forgotten
+        public static final String COLUMN_LAPSES = "lapses";
+        // The name of the category. Since the version 6 of the database
+        // is replaced by the ID of the category and is no longer filled
+        static final String COLUMN_CATEGORY = "category";
+
+        static final String INDEX_CATEGORY = "words_category_idx";
+        static final String INDEX_CATEGORY_ID = "words_category_id_idx";
+        static final String INDEX_NAME = "words_name_idx";
+        static final String INDEX_DATETIME = "words_datetime_idx";
+        static final String INDEX_NAME_SORT_KEY = "words_name_sort_key_idx";
+        static final String INDEX_NAME_SORT_KEY_DATETIME = "words_name_sort_key_datetime_idx";
+        static final String INDEX_DUE = "words_due_idx";
+    }
+
+    public static abstract class WordFtsEntry {
+
+        public static final String TABLE_NAME = "words_fts";
+        public static final String COLUMN_DOCID = "docid";
+
+        static final String TRIGGER_BEFORE_UPDATE = "words_fts_bu";
+        static final String TRIGGER_BEFORE_DELETE = "words_fts_bd";
+        static final String TRIGGER_AFTER_UPDATE = "words_fts_au";
+        static final String TRIGGER_AFTER_INSERT = "words_fts_ai";
+    }
+
+    public static abstract class ReviewLogEntry implements BaseColumns {
+
+        public static final String TABLE_NAME = "review_log";
+        public static final String COLUMN_WORD_ID = "word_id";
+        // The time of the review in milliseconds
+        public static final String COLUMN_TIME = "time";
+        // One of the grades of the review scheduler
+        public static final String COLUMN_GRADE = "grade";
+        // How long the word was shown before it was graded, in milliseconds
+        public static final String COLUMN_ELAPSED = "elapsed";
+
+        static final String INDEX_WORD_ID = "review_log_word_id_idx";
+        static final String INDEX_TIME = "review_log_time_idx";
+    }
+
+    public static abstract class ReviewDayEntry {
+
+        public static final String TABLE_NAME = "review_days";
+        public static final String COLUMN_WORD_ID = "word_id";
+        // The number of days since the epoch in the time zone of the device
+        public static final String COLUMN_DAY = "day";
+        public static final String COLUMN_REVIEW_COUNT = "review_count";
+        // The number of the reviews where the word was forgotten
+        public static final String COLUMN_AGAIN_COUNT = "again_count";
+        // The total time the word was shown during the reviews, in milliseconds
+        public static final String COLUMN_ELAPSED = "elapsed";
+
+        static final String INDEX_DAY = "review_days_day_idx";
     }
 
     public static abstract class CategoryEntry implements BaseColumns {
 
         public static final String TABLE_NAME = "categories";
         public static final String COLUMN_NAME = "name";
+        // Not stored in the table, calculated by the query of the categories with the number of words
+        public static final String COLUMN_WORD_COUNT = "word_count";
     }
 }
@@ -22,6 +22,10 @@ import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
 import com.akhbulatov.wordkeeper.R;
+import com.akhbulatov.wordkeeper.util.SharedPreferencesManager;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 /**
  * Helps to support and update databases
@@ -29,13 +33,50 @@ import com.akhbulatov.wordkeeper.R;
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "wordkeeper.db";
-    private static final int DATABASE_VERSION = 3;
+    private static final int DATABASE_VERSION = 14;
+
+    private static DatabaseHelper sInstance;
 
     private Context mContext;
 
-    DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    /**
+     * Returns the helper shared by the whole app. The connection of the helper
+     * is opened once and is never closed while the process is alive
+     */
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new DatabaseHelper(context.getApplicationContext(), DATABASE_NAME, null);
+        }
+        return sInstance;
+    }
+
+    /**
+     * Replaces the helper shared by the whole app with the helper of a new database in memory.
+     * Lets the tests see the queries of the adapters through the cursors created by the factory
+     */
+    @VisibleForTesting
+    static synchronized DatabaseHelper createInMemory(Context context,
+                                                      @Nullable SQLiteDatabase.CursorFactory factory) {
+        if (sInstance != null) {
+            sInstance.close();
+        }
+        sInstance = new DatabaseHelper(context.getApplicationContext(), null, factory);
+        return sInstance;
+    }
+
+    private DatabaseHelper(Context context, @Nullable String name,
+                           @Nullable SQLiteDatabase.CursorFactory factory) {
+        super(context, name, factory, DATABASE_VERSION);
         mContext = context;
+        // Allows the loaders to read the data while it is being written
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Deletes the words of a category when the category is deleted
+        db.setForeignKeyConstraintsEnabled(true);
     }
 
     @Override
@@ -62,6 +103,88 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             // Creates a default category that cannot be deleted
             db.insert(DatabaseContract.CategoryEntry.TABLE_NAME, null, createDefaultCategory());
         }
+        if (oldVersion < 4) {
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_ENTRIES);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_TRIGGER_BEFORE_UPDATE);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_TRIGGER_BEFORE_DELETE);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_TRIGGER_AFTER_UPDATE);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_TRIGGER_AFTER_INSERT);
+
+            // Indexes the words that already exist
+            db.execSQL(DatabaseContract.SQL_REBUILD_WORD_FTS_ENTRIES);
+        }
+        if (oldVersion < 5) {
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_CATEGORY_INDEX);
+        }
+        if (oldVersion < 6) {
+            // Runs in the transaction of the upgrade, so all words are converted at once
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_CATEGORY_ID);
+            db.execSQL(DatabaseContract.SQL_WORD_FILL_COLUMN_CATEGORY_ID);
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_CATEGORY_INDEX);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_CATEGORY_ID_INDEX);
+        }
+        if (oldVersion < 7) {
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_NAME_INDEX);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_DATETIME_INDEX);
+        }
+        if (oldVersion < 8) {
+            db.execSQL(DatabaseContract.SQL_WORD_FILL_EMPTY_NAME);
+            db.execSQL(DatabaseContract.SQL_WORD_FILL_EMPTY_DATETIME);
+        }
+        if (oldVersion < 9) {
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_NAME_SORT_KEY);
+            // The keys are created by the writer in batches after the database is opened,
+            // the words without a key are sorted first until then
+            SharedPreferencesManager.setNameSortKeysStale(mContext, true);
+            // The words are no longer sorted by the name itself
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_NAME_INDEX);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_NAME_SORT_KEY_INDEX);
+        }
+        if (oldVersion < 10) {
+            // The old index is dropped first, so filling the new columns does not update it
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_FTS_TRIGGER_BEFORE_UPDATE);
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_FTS_TRIGGER_BEFORE_DELETE);
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_FTS_TRIGGER_AFTER_UPDATE);
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_FTS_TRIGGER_AFTER_INSERT);
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_FTS_ENTRIES);
+
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_NAME_NORMALIZED);
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_TRANSLATION_NORMALIZED);
+            // The columns are filled by the writer in batches after the database is opened,
+            // the triggers add the words to the index then, so the search skips them until then
+            SharedPreferencesManager.setNormalizedColumnsStale(mContext, true);
+
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_NORMALIZED_ENTRIES);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_BEFORE_UPDATE);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_BEFORE_DELETE);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_AFTER_UPDATE);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_FTS_NORMALIZED_TRIGGER_AFTER_INSERT);
+            // Registers the words with the empty columns, so the triggers can replace them later
+            db.execSQL(DatabaseContract.SQL_REBUILD_WORD_FTS_ENTRIES);
+        }
+        if (oldVersion < 11) {
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_DUE);
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_STABILITY);
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_DIFFICULTY);
+            db.execSQL(DatabaseContract.SQL_WORD_ADD_COLUMN_LAPSES);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_DUE_INDEX);
+        }
+        if (oldVersion < 12) {
+            db.execSQL(DatabaseContract.SQL_CREATE_REVIEW_LOG_ENTRIES);
+            db.execSQL(DatabaseContract.SQL_CREATE_REVIEW_LOG_WORD_ID_INDEX);
+            db.execSQL(DatabaseContract.SQL_CREATE_REVIEW_LOG_TIME_INDEX);
+            db.execSQL(DatabaseContract.SQL_CREATE_REVIEW_DAY_ENTRIES);
+            db.execSQL(DatabaseContract.SQL_CREATE_REVIEW_DAY_DAY_INDEX);
+        }
+        if (oldVersion < 13) {
+            // The letter "\u0439" is no longer folded to "\u0438",
+            // so the columns are filled again by the writer after the database is opened
+            SharedPreferencesManager.setNormalizedColumnsStale(mContext, true);
+        }
+        if (oldVersion < 14) {
+            db.execSQL(DatabaseContract.SQL_DROP_WORD_NAME_SORT_KEY_INDEX);
+            db.execSQL(DatabaseContract.SQL_CREATE_WORD_NAME_SORT_KEY_DATETIME_INDEX);
+        }
     }
 
     private ContentValues createDefaultCategory() {
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Executes all writes of the app on one background thread.
+ * The writes requested while the previous ones are executed are committed together
+ * in one transaction. If the transaction fails, each write of it is executed again
+ * in its own transaction, so one failed write does not discard the others.
+ * A write failed in its own transaction is reported to its callback.
+ * The callbacks are called on the main thread. The changes made by the writes
+ * are published by {@link ChangeBus} once per committed transaction
+ */
+public final class DatabaseWriter {
+
+    private static final String TAG = DatabaseWriter.class.getSimpleName();
+
+    private static DatabaseWriter sInstance;
+
+    private final Context mContext;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by this
+    private final List<PendingWrite<?>> mPendingWrites = new ArrayList<>();
+    private boolean mDrainScheduled;
+
+    public static synchronized DatabaseWriter getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new DatabaseWriter(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private DatabaseWriter(Context context) {
+        mContext = context;
+    }
+
+    /**
+     * Schedules the write. The write is executed in a transaction,
+     * so it must not start its own work in the background
+     *
+     * @param callback Receives the result of the write on the main thread after the commit
+     *                 or the error if the write failed, null if the result is not needed
+     */
+    public <T> void execute(WriteTask<T> task, @Nullable WriteCallback<T> callback) {
+        synchronized (this) {
+            mPendingWrites.add(new PendingWrite<>(task, callback));
+            if (mDrainScheduled) {
+                return;
+            }
+            mDrainScheduled = true;
+        }
+        mExecutor.execute(this::drain);
+    }
+
+    /**
+     * Blocks until the writes scheduled before are executed or the timeout elapses.
+     * Their callbacks are still called later on the main thread
+     *
+     * @return Returns false if the writes were not executed in time
+     */
+    public boolean awaitPendingWrites(long timeoutMs) {
+        // The drains are executed in order, so the writes scheduled before
+        // are executed by the time this empty task is
+        Future<?> marker = mExecutor.submit(() -> {
+        });
+        try {
+            marker.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            Log.w(TAG, "The pending writes were not executed in time", e);
+            return false;
+        }
+    }
+
+    private void drain() {
+        List<PendingWrite<?>> writes;
+        synchronized (this) {
+            writes = new ArrayList<>(mPendingWrites);
+            mPendingWrites.clear();
+            mDrainScheduled = false;
+        }
+
+        SQLiteDatabase db = DatabaseHelper.getInstance(mContext).getWritableDatabase();
+        if (!executeInTransaction(db, writes)) {
+            for (PendingWrite<?> write : writes) {
+                executeInTransaction(db, Collections.singletonList(write));
+            }
+        }
+
+        mMainHandler.post(() -> {
+            for (PendingWrite<?> write : writes) {
+                write.deliverResult();
+            }
+        });
+    }
+
+    private static boolean executeInTransaction(SQLiteDatabase db, List<PendingWrite<?>> writes) {
+        ChangeSet changes = new ChangeSet();
+        try {
+            db.beginTransaction();
+            try {
+                for (PendingWrite<?> write : writes) {
+                    write.execute(changes);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Could not write the records", e);
+            for (PendingWrite<?> write : writes) {
+                write.mError = e;
+            }
+            return false;
+        }
+
+        for (PendingWrite<?> write : writes) {
+            write.mError = null;
+        }
+        ChangeBus.getInstance().publish(changes.getEvents());
+        return true;
+    }
+
+    public interface WriteTask<T> {
+        /**
+         * Executes the write on the thread of the writer
+         *
+         * @param changes Receives the changes made by the write
+         */
+        T execute(ChangeSet changes);
+    }
+
+    public interface WriteCallback<T> {
+        void onWriteFinished(T result);
+
+        /**
+         * Called instead of {@link #onWriteFinished(Object)} when the write is rolled back
+         */
+        default void onWriteFailed(RuntimeException error) {
+        }
+    }
+
+    private static class PendingWrite<T> {
+
+        final WriteTask<T> mTask;
+        final WriteCallback<T> mCallback;
+
+        T mResult;
+        // The error of the last transaction the write was executed in or null if it was committed
+        RuntimeException mError;
+
+        PendingWrite(WriteTask<T> task, WriteCallback<T> callback) {
+            mTask = task;
+            mCallback = callback;
+        }
+
+        void execute(ChangeSet changes) {
+            mResult = mTask.execute(changes);
+        }
+
+        void deliverResult() {
+            if (mCallback == null) {
+                return;
+            }
+            if (mError == null) {
+                mCallback.onWriteFinished(mResult);
+            } else {
+                mCallback.onWriteFailed(mError);
+            }
+        }
+    }
+}
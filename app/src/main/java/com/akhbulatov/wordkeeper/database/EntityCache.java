@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.util.LruCache;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.model.Category;
+import com.akhbulatov.wordkeeper.model.Word;
+
+import java.util.List;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Keeps the recently read rows of a table by their IDs.
+ * The size of the cache is limited by the approximate memory taken by the rows,
+ * the least recently used rows are removed first.
+ * <p>
+ * The rows are removed right after {@link ChangeBus} publishes their update or deletion.
+ * A row read from the database before a change and put after it would be outdated,
+ * so the row is put only if no change has been published since its reading started
+ *
+ * @param <T> The type of the rows
+ */
+public final class EntityCache<T> {
+
+    // The approximate memory of an object and its fields except the strings
+    private static final int OBJECT_SIZE = 48;
+    private static final int MAX_WORDS_SIZE = 256 * 1024;
+    private static final int MAX_CATEGORIES_SIZE = 32 * 1024;
+
+    private static EntityCache<Word> sWords;
+    private static EntityCache<Category> sCategories;
+
+    private final LruCache<Long, T> mCache;
+    // Increases with each published change of the table, guarded by this
+    private long mGeneration;
+
+    public static synchronized EntityCache<Word> getWords() {
+        if (sWords == null) {
+            sWords = new EntityCache<>(WordEntry.TABLE_NAME, MAX_WORDS_SIZE,
+                    word -> OBJECT_SIZE + getSize(word.getName()) + getSize(word.getTranslation()));
+        }
+        return sWords;
+    }
+
+    public static synchronized EntityCache<Category> getCategories() {
+        if (sCategories == null) {
+            sCategories = new EntityCache<>(CategoryEntry.TABLE_NAME, MAX_CATEGORIES_SIZE,
+                    category -> OBJECT_SIZE + getSize(category.getName()));
+        }
+        return sCategories;
+    }
+
+    private EntityCache(String table, int maxSize, Sizer<T> sizer) {
+        mCache = new LruCache<Long, T>(maxSize) {
+            @Override
+            protected int sizeOf(Long id, T value) {
+                return sizer.sizeOf(value);
+            }
+        };
+        ChangeBus.getInstance().subscribeSync(ChangeBus.forTables(table), this::onChanged);
+    }
+
+    /**
+     * @return Returns the cached row or null if it is not in the cache
+     */
+    @Nullable
+    T get(long id) {
+        return mCache.get(id);
+    }
+
+    /**
+     * Returns the stamp taken before reading a row from the database and passed to {@link #put}
+     */
+    synchronized long getGeneration() {
+        return mGeneration;
+    }
+
+    /**
+     * Puts the row read from the database unless the table has been changed since the stamp was taken
+     */
+    synchronized void put(long id, T value, long generation) {
+        if (generation == mGeneration) {
+            mCache.put(id, value);
+        }
+    }
+
+    public int getHitCount() {
+        return mCache.hitCount();
+    }
+
+    public int getMissCount() {
+        return mCache.missCount();
+    }
+
+    @Override
+    public String toString() {
+        return mCache.toString();
+    }
+
+    private synchronized void onChanged(List<ChangeEvent> events) {
+        mGeneration++;
+        for (ChangeEvent event : events) {
+            if (event.getKind() == ChangeEvent.INSERT) {
+                // A new row cannot be in the cache
+                continue;
+            }
+            long[] ids = event.getIds();
+            if (ids == null) {
+                mCache.evictAll();
+                return;
+            }
+            for (long id : ids) {
+                mCache.remove(id);
+            }
+        }
+    }
+
+    // Counts 2 bytes for each character of the string
+    private static int getSize(@Nullable String value) {
+        return value != null ? value.length() * 2 : 0;
+    }
+
+    private interface Sizer<T> {
+        int sizeOf(T value);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.util.TextNormalizer;
+
+/**
+ * Fills the normalized columns of the words the search is performed on
+ */
+final class NormalizedColumns {
+
+    // The number of words read and updated by one write
+    private static final int BATCH_SIZE = 500;
+
+    private NormalizedColumns() {
+    }
+
+    /**
+     * Fills the normalized name and translation of the next batch of words in the order of ID.
+     * Should be called in a transaction. The batches are written by separate transactions,
+     * so the database is never locked for all words at once
+     *
+     * @param afterId The ID of the last word of the previous batch or 0 for the first batch
+     * @return Returns the IDs of the updated words, which are empty when no words are left
+     */
+    static long[] fillBatch(SQLiteDatabase db, long afterId) {
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_UPDATE_WORD_NORMALIZED);
+        Cursor cursor = db.query(WordEntry.TABLE_NAME,
+                new String[]{WordEntry._ID, WordEntry.COLUMN_NAME, WordEntry.COLUMN_TRANSLATION},
+                WordEntry._ID + " > ?", new String[]{String.valueOf(afterId)},
+                null, null,
+                WordEntry._ID,
+                String.valueOf(BATCH_SIZE));
+        try {
+            long[] ids = new long[cursor.getCount()];
+            for (int i = 0; cursor.moveToNext(); i++) {
+                ids[i] = cursor.getLong(0);
+                statement.bindString(1, TextNormalizer.normalize(cursor.getString(1)));
+                statement.bindString(2, TextNormalizer.normalize(cursor.getString(2)));
+                statement.bindLong(3, ids[i]);
+                statement.executeUpdateDelete();
+            }
+            return ids;
+        } finally {
+            cursor.close();
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+
+import com.akhbulatov.wordkeeper.adapter.CursorDiff;
+import com.akhbulatov.wordkeeper.adapter.CursorSnapshot;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+/**
+ * Executes a query in the background while it has active observers
+ * and executes it again when {@link ChangeBus} publishes the changes accepted by its filter.
+ * The query running when the observers become inactive or when it is executed again is cancelled.
+ * The identical queries share one instance, so they are executed once for all observers.
+ * The changes of each cursor compared to the previous one are calculated in the background.
+ * The query releases the previous result when the next one is delivered and the last result
+ * when all observers are removed. The observers hold the results they show,
+ * see {@link QueryResult#acquire()}, so a cursor is not closed while it is shown
+ */
+public class QueryLiveData extends LiveData<QueryResult> {
+
+    // The number of the queries executed at the same time is limited,
+    // the reads use the connections of the write-ahead log
+    private static final ExecutorService QUERY_EXECUTOR = Executors.newFixedThreadPool(2);
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    // The queries by their keys, used only on the main thread
+    private static final Map<String, WeakReference<QueryLiveData>> sQueries = new HashMap<>();
+
+    private final ChangeBus.ChangeFilter mFilter;
+    private final CursorQuery mQuery;
+    private final ChangeBus.ChangeObserver mChangeObserver = events -> execute();
+
+    private CancellationSignal mCancellationSignal;
+    // Increases with each execution, so the results of the previous executions are discarded
+    private int mGeneration;
+    // The version of the bus the current cursor was loaded at
+    private long mVersion = -1;
+    // The snapshot of the current cursor to calculate the changes of the next one
+    private CursorSnapshot mSnapshot;
+
+    /**
+     * Returns the query with the key, creating it if there is no such query yet.
+     * Should be called on the main thread
+     *
+     * @param key    Identifies the query, e.g. the table with the parameters of the query
+     * @param filter Accepts the changes that can change the result of the query
+     * @param query  Loads the cursor in the background
+     */
+    static QueryLiveData obtain(String key, ChangeBus.ChangeFilter filter, CursorQuery query) {
+        WeakReference<QueryLiveData> reference = sQueries.get(key);
+        QueryLiveData liveData = reference != null ? reference.get() : null;
+        if (liveData == null) {
+            liveData = new QueryLiveData(filter, query);
+            sQueries.put(key, new WeakReference<>(liveData));
+        }
+        return liveData;
+    }
+
+    private QueryLiveData(ChangeBus.ChangeFilter filter, CursorQuery query) {
+        mFilter = filter;
+        mQuery = query;
+    }
+
+    @Override
+    protected void onActive() {
+        ChangeBus bus = ChangeBus.getInstance();
+        bus.subscribe(mFilter, mChangeObserver);
+        // The changes are not observed while the query is inactive
+        if (getValue() == null || mVersion != bus.getVersion()) {
+            execute();
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        ChangeBus.getInstance().unsubscribe(mChangeObserver);
+        cancel();
+    }
+
+    @Override
+    public void removeObserver(@NonNull Observer<? super QueryResult> observer) {
+        super.removeObserver(observer);
+        // Is also called for the inactive observers, e.g. when a stopped screen is destroyed
+        if (!hasObservers()) {
+            if (getValue() != null) {
+                setValue(null);
+            }
+            mSnapshot = null;
+            mVersion = -1;
+        }
+    }
+
+    @Override
+    protected void setValue(QueryResult value) {
+        QueryResult oldValue = getValue();
+        super.setValue(value);
+        // The active observers have acquired the new result, the inactive ones hold the old one
+        if (oldValue != null) {
+            oldValue.release();
+        }
+    }
+
+    private void execute() {
+        cancel();
+
+        final int generation = mGeneration;
+        final CancellationSignal cancellationSignal = new CancellationSignal();
+        final CursorSnapshot snapshot = mSnapshot;
+        final long version = ChangeBus.getInstance().getVersion();
+        mCancellationSignal = cancellationSignal;
+
+        QUERY_EXECUTOR.execute(() -> {
+            Cursor cursor;
+            try {
+                cancellationSignal.throwIfCanceled();
+                cursor = mQuery.query(cancellationSignal);
+                // Fills the cursor here, so the main thread does not read the database
+                cursor.getCount();
+            } catch (OperationCanceledException e) {
+                return;
+            }
+            CursorDiff diff = CursorDiff.calculate(snapshot, cursor);
+
+            MAIN_HANDLER.post(() -> {
+                if (generation != mGeneration) {
+                    // Nobody has received the cursor
+                    cursor.close();
+                    return;
+                }
+                mCancellationSignal = null;
+                mVersion = version;
+                mSnapshot = diff.getNewSnapshot();
+                setValue(new QueryResult(cursor, diff));
+            });
+        });
+    }
+
+    private void cancel() {
+        mGeneration++;
+        if (mCancellationSignal != null) {
+            mCancellationSignal.cancel();
+            mCancellationSignal = null;
+        }
+    }
+
+    interface CursorQuery {
+        /**
+         * Loads the cursor in the background
+         *
+         * @param cancellationSignal Is cancelled when the result is no longer needed
+         */
+        Cursor query(CancellationSignal cancellationSignal);
+    }
+}
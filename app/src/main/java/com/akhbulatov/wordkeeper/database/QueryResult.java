@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.Cursor;
+
+import com.akhbulatov.wordkeeper.adapter.CursorDiff;
+
+/**
+ * Contains the cursor loaded by {@link QueryLiveData} and its changes
+ * compared to the previous cursor of the query.
+ * The cursor is held by the query until the next cursor is loaded and by each screen
+ * showing it until the screen shows another cursor, so it is closed only when
+ * neither of them reads it. Should be used on the main thread
+ */
+public final class QueryResult {
+
+    private final Cursor mCursor;
+    private final CursorDiff mDiff;
+
+    // The number of the holders of the cursor, the first one is the query
+    private int mReferenceCount = 1;
+
+    QueryResult(Cursor cursor, CursorDiff diff) {
+        mCursor = cursor;
+        mDiff = diff;
+    }
+
+    /**
+     * Returns the cursor, which stays open while the result is held
+     */
+    public Cursor getCursor() {
+        return mCursor;
+    }
+
+    public CursorDiff getDiff() {
+        return mDiff;
+    }
+
+    /**
+     * Holds the cursor until {@link #release()} is called.
+     * Should be called when the cursor is received, e.g. before it is passed to the adapter
+     */
+    public void acquire() {
+        if (mReferenceCount == 0) {
+            throw new IllegalStateException("The cursor is already closed");
+        }
+        mReferenceCount++;
+    }
+
+    /**
+     * Releases the cursor once it is not shown, closing it if nobody else holds it
+     */
+    public void release() {
+        if (mReferenceCount == 0) {
+            throw new IllegalStateException("The cursor is already released");
+        }
+        if (--mReferenceCount == 0) {
+            mCursor.close();
+        }
+    }
+}
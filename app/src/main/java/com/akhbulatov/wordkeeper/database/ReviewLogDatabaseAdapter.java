@@ -0,0 +1,298 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewDayEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewLogEntry;
+import com.akhbulatov.wordkeeper.database.dao.ReviewLogDao;
+import com.akhbulatov.wordkeeper.model.ReviewDay;
+import com.akhbulatov.wordkeeper.model.ReviewEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides functionality to work with the tables of the review log
+ */
+public class ReviewLogDatabaseAdapter extends DatabaseAdapter implements ReviewLogDao {
+
+    // The grade of a forgotten word, see ReviewScheduler
+    private static final int GRADE_AGAIN = 1;
+
+    private static final String[] REVIEW_DAY_COLUMNS = {ReviewDayEntry.COLUMN_DAY,
+            ReviewDayEntry.COLUMN_REVIEW_COUNT,
+            ReviewDayEntry.COLUMN_AGAIN_COUNT,
+            ReviewDayEntry.COLUMN_ELAPSED};
+    private static final String[] REVIEW_LOG_COLUMNS = {ReviewLogEntry.COLUMN_TIME,
+            ReviewLogEntry.COLUMN_GRADE,
+            ReviewLogEntry.COLUMN_ELAPSED};
+
+    public ReviewLogDatabaseAdapter(Context context) {
+        super(context);
+    }
+
+    @Override
+    public int append(List<ReviewEvent> events) {
+        SQLiteDatabase db = getDatabase();
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_INSERT_REVIEW_LOG);
+        int count = 0;
+        db.beginTransaction();
+        try {
+            for (ReviewEvent event : events) {
+                statement.bindLong(1, event.getWordId());
+                statement.bindLong(2, event.getTime());
+                statement.bindLong(3, event.getGrade());
+                statement.bindLong(4, event.getElapsed());
+                statement.bindLong(5, event.getWordId());
+                // Nothing is inserted if the word has been deleted
+                if (statement.executeInsert() != -1) {
+                    count++;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public int compact(long before) {
+        SQLiteDatabase db = getDatabase();
+        SQLiteStatement update = db.compileStatement(DatabaseContract.SQL_UPDATE_REVIEW_DAY_ADD);
+        SQLiteStatement insert = db.compileStatement(DatabaseContract.SQL_INSERT_REVIEW_DAY);
+        SQLiteStatement delete = db.compileStatement(DatabaseContract.SQL_DELETE_REVIEW_LOG_BEFORE);
+        long offset = ReviewDay.getTimeZoneOffset();
+        int count;
+        db.beginTransaction();
+        try {
+            // The reviews are read in the order of the index of the time, so only the sums
+            // of one day are kept at a time instead of sorting all reviews by word and day
+            Cursor cursor = db.query(ReviewLogEntry.TABLE_NAME,
+                    new String[]{ReviewLogEntry.COLUMN_WORD_ID,
+                            ReviewLogEntry.COLUMN_TIME,
+                            ReviewLogEntry.COLUMN_GRADE,
+                            ReviewLogEntry.COLUMN_ELAPSED},
+                    ReviewLogEntry.COLUMN_TIME + " < ?",
+                    new String[]{String.valueOf(before)},
+                    null, null,
+                    ReviewLogEntry.COLUMN_TIME);
+            try {
+                Map<Long, ReviewDay> sums = new HashMap<>();
+                long day = Long.MIN_VALUE;
+                while (cursor.moveToNext()) {
+                    long reviewDay = ReviewDay.toDay(cursor.getLong(1), offset);
+                    if (reviewDay != day) {
+                        saveReviewDays(update, insert, sums);
+                        day = reviewDay;
+                    }
+                    long wordId = cursor.getLong(0);
+                    ReviewDay sum = sums.get(wordId);
+                    if (sum == null) {
+                        sum = new ReviewDay(day, 0, 0, 0);
+                        sums.put(wordId, sum);
+                    }
+                    addReview(sum, cursor.getInt(2), cursor.getLong(3));
+                }
+                saveReviewDays(update, insert, sums);
+            } finally {
+                cursor.close();
+            }
+
+            delete.bindLong(1, before);
+            count = delete.executeUpdateDelete();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            update.close();
+            insert.close();
+            delete.close();
+        }
+        return count;
+    }
+
+    @Override
+    public List<ReviewEvent> getHistory(long wordId, int limit) {
+        Cursor cursor = getDatabase().query(ReviewLogEntry.TABLE_NAME,
+                new String[]{ReviewLogEntry.COLUMN_TIME,
+                        ReviewLogEntry.COLUMN_GRADE,
+                        ReviewLogEntry.COLUMN_ELAPSED},
+                ReviewLogEntry.COLUMN_WORD_ID + " = ?",
+                new String[]{String.valueOf(wordId)},
+                null, null,
+                ReviewLogEntry.COLUMN_TIME + " DESC",
+                String.valueOf(limit));
+
+        List<ReviewEvent> events = new ArrayList<>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                events.add(new ReviewEvent(wordId, cursor.getLong(0), cursor.getInt(1), cursor.getLong(2)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return events;
+    }
+
+    @Override
+    public List<ReviewDay> getDailyHistory(long wordId) {
+        SQLiteDatabase db = getDatabase();
+        String[] selectionArgs = {String.valueOf(wordId)};
+        // Both tables are read by the indexes of the word in the order of the days
+        // and merged here, so the database does not sort their union
+        List<ReviewDay> compactedDays = readReviewDays(db.query(ReviewDayEntry.TABLE_NAME,
+                REVIEW_DAY_COLUMNS,
+                ReviewDayEntry.COLUMN_WORD_ID + " = ?",
+                selectionArgs,
+                null, null,
+                ReviewDayEntry.COLUMN_DAY));
+        List<ReviewDay> recentDays = readReviewLogDays(db.query(ReviewLogEntry.TABLE_NAME,
+                REVIEW_LOG_COLUMNS,
+                ReviewLogEntry.COLUMN_WORD_ID + " = ?",
+                selectionArgs,
+                null, null,
+                ReviewLogEntry.COLUMN_TIME));
+        return mergeReviewDays(compactedDays, recentDays);
+    }
+
+    @Override
+    public List<ReviewDay> getReviewsPerDay(long fromDay, long toDay) {
+        SQLiteDatabase db = getDatabase();
+        // Both tables are read by the ranges of their indexes of the day and the time
+        List<ReviewDay> compactedDays = readReviewDays(db.query(ReviewDayEntry.TABLE_NAME,
+                REVIEW_DAY_COLUMNS,
+                ReviewDayEntry.COLUMN_DAY + " >= ? AND " + ReviewDayEntry.COLUMN_DAY + " < ?",
+                new String[]{String.valueOf(fromDay), String.valueOf(toDay + 1)},
+                null, null,
+                ReviewDayEntry.COLUMN_DAY));
+        List<ReviewDay> recentDays = readReviewLogDays(db.query(ReviewLogEntry.TABLE_NAME,
+                REVIEW_LOG_COLUMNS,
+                ReviewLogEntry.COLUMN_TIME + " >= ? AND " + ReviewLogEntry.COLUMN_TIME + " < ?",
+                new String[]{String.valueOf(ReviewDay.toTime(fromDay)),
+                        String.valueOf(ReviewDay.toTime(toDay + 1))},
+                null, null,
+                ReviewLogEntry.COLUMN_TIME));
+        return mergeReviewDays(compactedDays, recentDays);
+    }
+
+    // Adds the sums of the words to their rows of the day and clears them
+    private static void saveReviewDays(SQLiteStatement update, SQLiteStatement insert,
+                                       Map<Long, ReviewDay> sums) {
+        for (Map.Entry<Long, ReviewDay> entry : sums.entrySet()) {
+            // The day may already have the sums if the previous compaction
+            // has stopped in the middle of it, e.g. after the time zone was changed
+            bindReviewDay(update, entry.getKey(), entry.getValue());
+            if (update.executeUpdateDelete() == 0) {
+                bindReviewDay(insert, entry.getKey(), entry.getValue());
+                insert.executeInsert();
+            }
+        }
+        sums.clear();
+    }
+
+    // The sums are bound first and then the word and the day
+    private static void bindReviewDay(SQLiteStatement statement, long wordId, ReviewDay day) {
+        statement.bindLong(1, day.getReviewCount());
+        statement.bindLong(2, day.getAgainCount());
+        statement.bindLong(3, day.getElapsed());
+        statement.bindLong(4, wordId);
+        statement.bindLong(5, day.getDay());
+    }
+
+    private static void addReview(ReviewDay day, int grade, long elapsed) {
+        day.setReviewCount(day.getReviewCount() + 1);
+        if (grade == GRADE_AGAIN) {
+            day.setAgainCount(day.getAgainCount() + 1);
+        }
+        day.setElapsed(day.getElapsed() + elapsed);
+    }
+
+    // Reads the sums in the order of the days, the sums of several words of one day are added up
+    private static List<ReviewDay> readReviewDays(Cursor cursor) {
+        List<ReviewDay> days = new ArrayList<>();
+        try {
+            ReviewDay last = null;
+            while (cursor.moveToNext()) {
+                long day = cursor.getLong(0);
+                if (last == null || last.getDay() != day) {
+                    last = new ReviewDay(day, 0, 0, 0);
+                    days.add(last);
+                }
+                last.setReviewCount(last.getReviewCount() + cursor.getInt(1));
+                last.setAgainCount(last.getAgainCount() + cursor.getInt(2));
+                last.setElapsed(last.getElapsed() + cursor.getLong(3));
+            }
+        } finally {
+            cursor.close();
+        }
+        return days;
+    }
+
+    // Reads the reviews in the order of the time and sums them by day
+    private static List<ReviewDay> readReviewLogDays(Cursor cursor) {
+        long offset = ReviewDay.getTimeZoneOffset();
+        List<ReviewDay> days = new ArrayList<>();
+        try {
+            ReviewDay last = null;
+            while (cursor.moveToNext()) {
+                long day = ReviewDay.toDay(cursor.getLong(0), offset);
+                if (last == null || last.getDay() != day) {
+                    last = new ReviewDay(day, 0, 0, 0);
+                    days.add(last);
+                }
+                addReview(last, cursor.getInt(1), cursor.getLong(2));
+            }
+        } finally {
+            cursor.close();
+        }
+        return days;
+    }
+
+    /**
+     * Merges two lists of days ordered by day. The compacted days usually precede the recent ones,
+     * but they may share a day, e.g. after the time zone was changed, then their sums are added up
+     */
+    private static List<ReviewDay> mergeReviewDays(List<ReviewDay> first, List<ReviewDay> second) {
+        List<ReviewDay> days = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            ReviewDay day;
+            if (j == second.size() || (i < first.size() && first.get(i).getDay() < second.get(j).getDay())) {
+                day = first.get(i++);
+            } else if (i == first.size() || second.get(j).getDay() < first.get(i).getDay()) {
+                day = second.get(j++);
+            } else {
+                day = first.get(i++);
+                ReviewDay other = second.get(j++);
+                day.setReviewCount(day.getReviewCount() + other.getReviewCount());
+                day.setAgainCount(day.getAgainCount() + other.getAgainCount());
+                day.setElapsed(day.getElapsed() + other.getElapsed());
+            }
+            days.add(day);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.database.CursorWrapper;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+
+/**
+ * Reads the columns of the words from a cursor by the typed methods.
+ * The positions of the columns are found once for the cursor instead of for each row.
+ * The cursor contains the ID, the name and the translation of the words,
+ * the category is optional
+ */
+public class WordCursor extends CursorWrapper {
+
+    private final int mIdColumn;
+    private final int mNameColumn;
+    private final int mTranslationColumn;
+    private final int mCategoryIdColumn;
+
+    public WordCursor(Cursor cursor) {
+        super(cursor);
+        mIdColumn = cursor.getColumnIndexOrThrow(WordEntry._ID);
+        mNameColumn = cursor.getColumnIndexOrThrow(WordEntry.COLUMN_NAME);
+        mTranslationColumn = cursor.getColumnIndexOrThrow(WordEntry.COLUMN_TRANSLATION);
+        mCategoryIdColumn = cursor.getColumnIndex(WordEntry.COLUMN_CATEGORY_ID);
+    }
+
+    public long getId() {
+        return getLong(mIdColumn);
+    }
+
+    public String getName() {
+        return getString(mNameColumn);
+    }
+
+    public String getTranslation() {
+        return getString(mTranslationColumn);
+    }
+
+    public boolean isTranslationNull() {
+        return isNull(mTranslationColumn);
+    }
+
+    public long getCategoryId() {
+        if (mCategoryIdColumn == -1) {
+            throw new IllegalStateException("The cursor has no category of the words");
+        }
+        return getLong(mCategoryIdColumn);
+    }
+
+    /**
+     * Copies the name to the buffer, which is reused for the next rows instead of creating a string
+     */
+    public void copyNameToBuffer(CharArrayBuffer buffer) {
+        copyStringToBuffer(mNameColumn, buffer);
+    }
+
+    public void copyTranslationToBuffer(CharArrayBuffer buffer) {
+        copyStringToBuffer(mTranslationColumn, buffer);
+    }
+}
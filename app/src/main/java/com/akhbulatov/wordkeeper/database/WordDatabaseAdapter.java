@@ -19,11 +19,26 @@ package com.akhbulatov.wordkeeper.database;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
 import android.util.Log;
+import android.util.LongSparseArray;
 
 import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
 import com.akhbulatov.wordkeeper.database.dao.WordDao;
+import com.akhbulatov.wordkeeper.model.ReviewCard;
 import com.akhbulatov.wordkeeper.model.Word;
+import com.akhbulatov.wordkeeper.util.TextNormalizer;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
 
 /**
  * @author Alidibir Akhbulatov
@@ -37,6 +52,16 @@ public class WordDatabaseAdapter extends DatabaseAdapter implements WordDao {
 
     private static final String TAG = WordDatabaseAdapter.class.getSimpleName();
 
+    // The columns of the lists of words. The list shows one line of the translation,
+    // so only its beginning is read and a window of the cursor holds more words
+    private static final String[] LIST_COLUMNS = new String[]{WordEntry._ID,
+            WordEntry.COLUMN_NAME,
+            DatabaseContract.SQL_WORD_TRANSLATION_PREVIEW};
+    // The names of the same columns for the cursors created in memory
+    private static final String[] LIST_COLUMN_NAMES = new String[]{WordEntry._ID,
+            WordEntry.COLUMN_NAME,
+            WordEntry.COLUMN_TRANSLATION};
+
     public WordDatabaseAdapter(Context context) {
         super(context);
     }
@@ -44,13 +69,13 @@ public class WordDatabaseAdapter extends DatabaseAdapter implements WordDao {
     @Override
     public long insert(Word word) {
         ContentValues values = createContentValues(word);
-        return mDatabase.insert(WordEntry.TABLE_NAME, null, values);
+        return getDatabase().insert(WordEntry.TABLE_NAME, null, values);
     }
 
     @Override
     public int update(Word word) {
         ContentValues values = createContentValues(word);
-        return mDatabase.update(WordEntry.TABLE_NAME,
+        return getDatabase().update(WordEntry.TABLE_NAME,
                 values,
                 WordEntry._ID + " = ?",
                 new String[]{String.valueOf(word.getId())});
@@ -58,28 +83,141 @@ public class WordDatabaseAdapter extends DatabaseAdapter implements WordDao {
 
     @Override
     public int delete(Word word) {
-        return mDatabase.delete(WordEntry.TABLE_NAME,
+        return getDatabase().delete(WordEntry.TABLE_NAME,
                 WordEntry._ID + " = ?",
                 new String[]{String.valueOf(word.getId())});
     }
 
     @Override
-    public Cursor getAll(int sortMode) {
-        String orderBy;
-        // Uses only 2 sort mode
-        // For sorting by name value is 0 and by last modified is value 1
-        if (sortMode == 0) {
-            orderBy = DatabaseContract.SQL_WORD_ORDER_BY_NAME;
-        } else {
-            orderBy = DatabaseContract.SQL_WORD_ORDER_BY_DATETIME;
+    public long[] insertAll(List<Word> words) {
+        SQLiteDatabase db = getDatabase();
+        long[] ids = new long[words.size()];
+        long datetime = System.currentTimeMillis();
+        Collator collator = NameSortKeys.newCollator();
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_INSERT_WORD);
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < words.size(); i++) {
+                bindWord(statement, words.get(i), datetime, collator);
+                ids[i] = statement.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
         }
+        return ids;
+    }
 
-        Cursor cursor = mDatabase.query(WordEntry.TABLE_NAME,
-                new String[]{WordEntry._ID,
-                        WordEntry.COLUMN_NAME,
-                        WordEntry.COLUMN_TRANSLATION},
+    @Override
+    public int updateAll(List<Word> words) {
+        SQLiteDatabase db = getDatabase();
+        int count = 0;
+        long datetime = System.currentTimeMillis();
+        Collator collator = NameSortKeys.newCollator();
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_UPDATE_WORD);
+        db.beginTransaction();
+        try {
+            for (Word word : words) {
+                bindWord(statement, word, datetime, collator);
+                statement.bindLong(8, word.getId());
+                count += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public int deleteByIds(long[] ids) {
+        SQLiteDatabase db = getDatabase();
+        int count = 0;
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_DELETE_WORD);
+        db.beginTransaction();
+        try {
+            for (long id : ids) {
+                statement.bindLong(1, id);
+                count += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public int moveToCategory(long[] ids, long categoryId) {
+        SQLiteDatabase db = getDatabase();
+        int count = 0;
+        long datetime = System.currentTimeMillis();
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_MOVE_WORD);
+        db.beginTransaction();
+        try {
+            for (long id : ids) {
+                statement.bindLong(1, categoryId);
+                statement.bindLong(2, datetime);
+                statement.bindLong(3, id);
+                count += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public int deleteMatching(String query, long[] excludedIds) {
+        String matchQuery = createMatchQuery(query);
+        if (!query.isEmpty() && matchQuery == null) {
+            // The query has no words, so no word matches it
+            return 0;
+        }
+        return getDatabase().delete(WordEntry.TABLE_NAME,
+                createMatchingSelection(matchQuery, excludedIds),
+                matchQuery != null ? new String[]{matchQuery} : null);
+    }
+
+    @Override
+    public int moveMatching(String query, long[] excludedIds, long categoryId) {
+        String matchQuery = createMatchQuery(query);
+        if (!query.isEmpty() && matchQuery == null) {
+            return 0;
+        }
+        ContentValues values = new ContentValues();
+        values.put(WordEntry.COLUMN_CATEGORY_ID, categoryId);
+        values.put(WordEntry.COLUMN_DATETIME, System.currentTimeMillis());
+        return getDatabase().update(WordEntry.TABLE_NAME,
+                values,
+                createMatchingSelection(matchQuery, excludedIds),
+                matchQuery != null ? new String[]{matchQuery} : null);
+    }
+
+    @Override
+    public int getMatchingCount(String query) {
+        if (query.isEmpty()) {
+            return getCount();
+        }
+        String matchQuery = createMatchQuery(query);
+        if (matchQuery == null) {
+            return 0;
+        }
+        return (int) DatabaseUtils.queryNumEntries(getDatabase(), WordEntry.TABLE_NAME,
+                DatabaseContract.SQL_WORD_MATCH, new String[]{matchQuery});
+    }
+
+    @Override
+    public Cursor getAll(int sortMode) {
+        Cursor cursor = getDatabase().query(WordEntry.TABLE_NAME,
+                LIST_COLUMNS,
                 null, null, null, null,
-                orderBy);
+                getOrderBy(sortMode));
 
         if (cursor != null) {
             cursor.moveToFirst();
@@ -89,22 +227,39 @@ public class WordDatabaseAdapter extends DatabaseAdapter implements WordDao {
 
     @Override
     public Word get(long id) {
+        EntityCache<Word> cache = EntityCache.getWords();
+        Word word = cache.get(id);
+        if (word == null) {
+            long generation = cache.getGeneration();
+            word = query(id);
+            if (word.getId() != id) {
+                // The word does not exist
+                return word;
+            }
+            cache.put(id, word, generation);
+        }
+        // The cached word must not be changed, so a copy is returned
+        return new Word(word.getId(), word.getName(), word.getTranslation(), word.getCategoryId());
+    }
+
+    private Word query(long id) {
         Word word = null;
-        Cursor cursor = mDatabase.query(true, WordEntry.TABLE_NAME,
+        Cursor cursor = getDatabase().query(true, WordEntry.TABLE_NAME,
                 new String[]{WordEntry._ID,
                         WordEntry.COLUMN_NAME,
                         WordEntry.COLUMN_TRANSLATION,
-                        WordEntry.COLUMN_CATEGORY},
+                        WordEntry.COLUMN_CATEGORY_ID},
                 WordEntry._ID + " = " + id,
                 null, null, null, null, null);
 
         try {
-            cursor.moveToFirst();
+            WordCursor wordCursor = new WordCursor(cursor);
+            wordCursor.moveToFirst();
             word = new Word();
-            word.setId(cursor.getLong(cursor.getColumnIndex(WordEntry._ID)));
-            word.setName(cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_NAME)));
-            word.setTranslation(cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_TRANSLATION)));
-            word.setCategory(cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_CATEGORY)));
+            word.setId(wordCursor.getId());
+            word.setName(wordCursor.getName());
+            word.setTranslation(wordCursor.getTranslation());
+            word.setCategoryId(wordCursor.getCategoryId());
         } catch (Exception e) {
             Log.e(TAG, "Could not get the record");
         } finally {
@@ -115,15 +270,229 @@ public class WordDatabaseAdapter extends DatabaseAdapter implements WordDao {
         return word;
     }
 
-    public Cursor getRecordsByCategory(String category) {
-        Cursor cursor = mDatabase.query(WordEntry.TABLE_NAME,
+    @Override
+    public long[] updateNameSortKeys(long afterId) {
+        return NameSortKeys.fillBatch(getDatabase(), afterId);
+    }
+
+    @Override
+    public long[] updateNormalizedColumns(long afterId) {
+        return NormalizedColumns.fillBatch(getDatabase(), afterId);
+    }
+
+    @Override
+    public int getCount() {
+        return (int) DatabaseUtils.queryNumEntries(getDatabase(), WordEntry.TABLE_NAME);
+    }
+
+    @Override
+    public Cursor getSortedIds(int sortMode, @Nullable CancellationSignal cancellationSignal) {
+        return getDatabase().query(false, WordEntry.TABLE_NAME,
+                new String[]{WordEntry._ID, WordEntry.COLUMN_DATETIME},
+                null, null, null, null,
+                sortMode == 0
+                        ? DatabaseContract.SQL_WORD_PAGE_ORDER_BY_NAME
+                        : DatabaseContract.SQL_WORD_PAGE_ORDER_BY_DATETIME,
+                null,
+                cancellationSignal);
+    }
+
+    @Override
+    public Cursor getByIds(long[] ids) {
+        return getDatabase().query(WordEntry.TABLE_NAME,
+                LIST_COLUMNS,
+                WordEntry._ID + " IN (" + joinIds(ids) + ")",
+                null, null, null, null);
+    }
+
+    @Override
+    public Cursor search(String query, int sortMode, int limit,
+                         @Nullable CancellationSignal cancellationSignal) {
+        String matchQuery = createMatchQuery(query);
+        if (matchQuery == null) {
+            // The query has no words to search for
+            return new MatrixCursor(LIST_COLUMN_NAMES, 0);
+        }
+
+        Cursor cursor = getDatabase().query(false, WordEntry.TABLE_NAME,
+                LIST_COLUMNS,
+                DatabaseContract.SQL_WORD_MATCH,
+                new String[]{matchQuery},
+                null, null,
+                getOrderBy(sortMode),
+                limit > 0 ? String.valueOf(limit) : null,
+                cancellationSignal);
+
+        if (cursor != null) {
+            cursor.moveToFirst();
+        }
+        return cursor;
+    }
+
+    @Override
+    public Cursor searchFuzzy(String query, int sortMode, int limit,
+                              @Nullable CancellationSignal cancellationSignal) {
+        MatrixCursor result = new MatrixCursor(LIST_COLUMN_NAMES);
+        LongSparseArray<Boolean> foundIds = new LongSparseArray<>();
+
+        Cursor cursor = search(query, sortMode, limit, cancellationSignal);
+        try {
+            for (int i = 0; cursor.moveToPosition(i); i++) {
+                long id = cursor.getLong(0);
+                result.addRow(new Object[]{id, cursor.getString(1), cursor.getString(2)});
+                foundIds.put(id, Boolean.TRUE);
+            }
+        } finally {
+            cursor.close();
+        }
+
+        String text = TextNormalizer.normalize(query).trim();
+        int maxDistance = getMaxTypoCount(text.length());
+        if (maxDistance == 0 || result.getCount() >= limit) {
+            return result;
+        }
+
+        WordFuzzyIndex fuzzyIndex = WordFuzzyIndex.getInstance();
+        fuzzyIndex.build(this);
+        if (cancellationSignal != null) {
+            cancellationSignal.throwIfCanceled();
+        }
+        long[] ids = fuzzyIndex.search(text, maxDistance, limit);
+        if (ids == null || ids.length == 0) {
+            return result;
+        }
+
+        // Reads the words with typos at once and adds them in the order of the index
+        LongSparseArray<Object[]> rows = new LongSparseArray<>(ids.length);
+        cursor = getDatabase().query(false, WordEntry.TABLE_NAME,
+                LIST_COLUMNS,
+                WordEntry._ID + " IN (" + joinIds(ids) + ")",
+                null, null, null, null, null,
+                cancellationSignal);
+        try {
+            while (cursor.moveToNext()) {
+                long id = cursor.getLong(0);
+                rows.put(id, new Object[]{id, cursor.getString(1), cursor.getString(2)});
+            }
+        } finally {
+            cursor.close();
+        }
+        for (long id : ids) {
+            Object[] row = rows.get(id);
+            if (row != null && foundIds.get(id) == null && result.getCount() < limit) {
+                result.addRow(row);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Cursor getNormalizedNames() {
+        return getDatabase().query(WordEntry.TABLE_NAME,
+                new String[]{WordEntry._ID, WordEntry.COLUMN_NAME_NORMALIZED},
+                null, null, null, null,
+                WordEntry._ID);
+    }
+
+    @Override
+    public Cursor getNormalizedNames(long[] ids) {
+        return getDatabase().query(WordEntry.TABLE_NAME,
+                new String[]{WordEntry._ID, WordEntry.COLUMN_NAME_NORMALIZED},
+                WordEntry._ID + " IN (" + joinIds(ids) + ")",
+                null, null, null, null);
+    }
+
+    @Override
+    public List<ReviewCard> getDue(long now, int limit) {
+        Cursor cursor = getDatabase().query(WordEntry.TABLE_NAME,
                 new String[]{WordEntry._ID,
                         WordEntry.COLUMN_NAME,
                         WordEntry.COLUMN_TRANSLATION,
-                        WordEntry.COLUMN_CATEGORY},
-                WordEntry.COLUMN_CATEGORY + " = ?",
-                new String[]{category},
-                null, null, null, null);
+                        WordEntry.COLUMN_DUE,
+                        WordEntry.COLUMN_STABILITY,
+                        WordEntry.COLUMN_DIFFICULTY,
+                        WordEntry.COLUMN_LAPSES},
+                DatabaseContract.SQL_WORD_DUE,
+                new String[]{String.valueOf(now)},
+                null, null,
+                DatabaseContract.SQL_WORD_ORDER_BY_DUE,
+                String.valueOf(limit));
+
+        List<ReviewCard> cards = new ArrayList<>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                cards.add(new ReviewCard(cursor.getLong(0),
+                        cursor.getString(1),
+                        cursor.getString(2),
+                        cursor.getLong(3),
+                        cursor.getDouble(4),
+                        cursor.getDouble(5),
+                        cursor.getInt(6)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return cards;
+    }
+
+    @Override
+    public int updateReviews(List<ReviewCard> cards) {
+        SQLiteDatabase db = getDatabase();
+        int count = 0;
+        SQLiteStatement statement = db.compileStatement(DatabaseContract.SQL_UPDATE_WORD_REVIEW);
+        db.beginTransaction();
+        try {
+            for (ReviewCard card : cards) {
+                statement.bindLong(1, card.getDue());
+                statement.bindDouble(2, card.getStability());
+                statement.bindDouble(3, card.getDifficulty());
+                statement.bindLong(4, card.getLapses());
+                statement.bindLong(5, card.getId());
+                count += statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+        return count;
+    }
+
+    @Override
+    public LiveData<QueryResult> observeAll(int sortMode) {
+        // Loads the words by pages, so the size of the list does not affect the memory
+        return QueryLiveData.obtain(WordEntry.TABLE_NAME + "?sort=" + sortMode,
+                WordDatabaseAdapter::affectsWordList,
+                cancellationSignal -> new WordPagedCursor(this, sortMode, cancellationSignal));
+    }
+
+    @Override
+    public LiveData<QueryResult> observeByCategory(long categoryId) {
+        return QueryLiveData.obtain(WordEntry.TABLE_NAME + "?category_id=" + categoryId,
+                WordDatabaseAdapter::affectsWordList,
+                cancellationSignal -> getRecordsByCategory(categoryId, cancellationSignal));
+    }
+
+    // The review state is not shown in the lists, so the reviews do not reload them
+    private static boolean affectsWordList(ChangeEvent event) {
+        return WordEntry.TABLE_NAME.equals(event.getTable())
+                && (event.touchesColumn(WordEntry.COLUMN_NAME)
+                || event.touchesColumn(WordEntry.COLUMN_TRANSLATION)
+                || event.touchesColumn(WordEntry.COLUMN_DATETIME)
+                || event.touchesColumn(WordEntry.COLUMN_NAME_SORT_KEY)
+                || event.touchesColumn(WordEntry.COLUMN_CATEGORY_ID));
+    }
+
+    public Cursor getRecordsByCategory(long categoryId, @Nullable CancellationSignal cancellationSignal) {
+        Cursor cursor = getDatabase().query(false, WordEntry.TABLE_NAME,
+                new String[]{WordEntry._ID,
+                        WordEntry.COLUMN_NAME,
+                        DatabaseContract.SQL_WORD_TRANSLATION_PREVIEW,
+                        WordEntry.COLUMN_CATEGORY_ID},
+                WordEntry.COLUMN_CATEGORY_ID + " = ?",
+                new String[]{String.valueOf(categoryId)},
+                null, null, null, null,
+                cancellationSignal);
 
         if (cursor != null) {
             cursor.moveToFirst();
@@ -131,12 +500,121 @@ public class WordDatabaseAdapter extends DatabaseAdapter implements WordDao {
         return cursor;
     }
 
+    private String getOrderBy(int sortMode) {
+        // Uses only 2 sort mode
+        // For sorting by name value is 0 and by last modified is value 1
+        if (sortMode == 0) {
+            return DatabaseContract.SQL_WORD_ORDER_BY_NAME;
+        } else {
+            return DatabaseContract.SQL_WORD_ORDER_BY_DATETIME;
+        }
+    }
+
+    /**
+     * Converts the entered text to the FTS query, where each word of the text is a prefix.
+     * Splits the text in the same way as the default FTS tokenizer,
+     * so the query never contains the special characters of the FTS syntax
+     *
+     * @param text The text entered by the user
+     * @return Returns the FTS query or null if the text has no words
+     */
+    @Nullable
+    private static String createMatchQuery(String text) {
+        // The index contains the normalized columns, so the text is normalized the same way
+        String query = TextNormalizer.normalize(text);
+        StringBuilder matchQuery = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= query.length(); i++) {
+            char c = i < query.length() ? query.charAt(i) : ' ';
+            if (c >= 0x80 || Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                if (matchQuery.length() > 0) {
+                    matchQuery.append(' ');
+                }
+                matchQuery.append(token).append('*');
+                token.setLength(0);
+            }
+        }
+        return matchQuery.length() > 0 ? matchQuery.toString() : null;
+    }
+
+    /**
+     * Returns the number of typos allowed in the text of the length.
+     * The short texts have no typos, since they are close to too many words
+     */
+    private static int getMaxTypoCount(int length) {
+        if (length < 4) {
+            return 0;
+        } else if (length < 7) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+
+    /**
+     * Creates the condition selecting the words that match the FTS query, if any,
+     * and are not excluded. The FTS query is passed as the only argument
+     *
+     * @return Returns the condition or null to select all words
+     */
+    @Nullable
+    private static String createMatchingSelection(@Nullable String matchQuery, long[] excludedIds) {
+        StringBuilder selection = new StringBuilder();
+        if (matchQuery != null) {
+            selection.append(DatabaseContract.SQL_WORD_MATCH);
+        }
+        if (excludedIds.length > 0) {
+            if (selection.length() > 0) {
+                selection.append(" AND ");
+            }
+            selection.append(WordEntry._ID).append(" NOT IN (").append(joinIds(excludedIds)).append(')');
+        }
+        return selection.length() > 0 ? selection.toString() : null;
+    }
+
+    private static String joinIds(long[] ids) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(ids[i]);
+        }
+        return builder.toString();
+    }
+
+    // Binds the same values as createContentValues() in the order of the columns
+    // of the insert and update statements
+    private static void bindWord(SQLiteStatement statement, Word word, long datetime, Collator collator) {
+        bindString(statement, 1, word.getName());
+        bindString(statement, 2, word.getTranslation());
+        statement.bindLong(3, datetime);
+        statement.bindLong(4, word.getCategoryId());
+        statement.bindBlob(5, NameSortKeys.getSortKey(collator, word.getName()));
+        statement.bindString(6, TextNormalizer.normalize(word.getName()));
+        statement.bindString(7, TextNormalizer.normalize(word.getTranslation()));
+    }
+
+    private static void bindString(SQLiteStatement statement, int index, @Nullable String value) {
+        if (value != null) {
+            statement.bindString(index, value);
+        } else {
+            statement.bindNull(index);
+        }
+    }
+
     private ContentValues createContentValues(Word word) {
         ContentValues values = new ContentValues();
         values.put(WordEntry.COLUMN_NAME, word.getName());
         values.put(WordEntry.COLUMN_TRANSLATION, word.getTranslation());
         values.put(WordEntry.COLUMN_DATETIME, System.currentTimeMillis());
-        values.put(WordEntry.COLUMN_CATEGORY, word.getCategory());
+        values.put(WordEntry.COLUMN_CATEGORY_ID, word.getCategoryId());
+        values.put(WordEntry.COLUMN_NAME_SORT_KEY,
+                NameSortKeys.getSortKey(NameSortKeys.newCollator(), word.getName()));
+        values.put(WordEntry.COLUMN_NAME_NORMALIZED, TextNormalizer.normalize(word.getName()));
+        values.put(WordEntry.COLUMN_TRANSLATION_NORMALIZED, TextNormalizer.normalize(word.getTranslation()));
         return values;
     }
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.Cursor;
+import android.util.LongSparseArray;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.database.dao.WordDao;
+import com.akhbulatov.wordkeeper.util.TermTrie;
+
+import java.util.List;
+
+/**
+ * Finds the words whose names differ from the text by a few typos.
+ * Keeps the normalized names of all words in memory in a {@link TermTrie}.
+ * The index is built in the background on the first use and is updated
+ * by the changes of the words published by {@link ChangeBus} after their commit,
+ * so a rolled back write never reaches the index
+ */
+public final class WordFuzzyIndex {
+
+    private static WordFuzzyIndex sInstance;
+
+    private final Object mBuildLock = new Object();
+
+    // Are null until the index is built
+    private TermTrie mTrie;
+    private LongSparseArray<String> mNames;
+    // Reads the names of the changed words, is set by the first build
+    private WordDao mWordDao;
+    // Increases with each change of the words,
+    // so the index built while the words were changed is built again
+    private int mVersion;
+
+    public static synchronized WordFuzzyIndex getInstance() {
+        if (sInstance == null) {
+            sInstance = new WordFuzzyIndex();
+        }
+        return sInstance;
+    }
+
+    private WordFuzzyIndex() {
+        ChangeBus.getInstance().subscribeSync(ChangeBus.forTables(WordEntry.TABLE_NAME), this::onChanged);
+    }
+
+    /**
+     * Builds the index if it is not built yet. Reads the words outside the lock of the index,
+     * so the words can be changed meanwhile. Is called in the background
+     */
+    public void build(WordDao wordDao) {
+        synchronized (mBuildLock) {
+            while (true) {
+                int version;
+                synchronized (this) {
+                    if (mTrie != null) {
+                        return;
+                    }
+                    mWordDao = wordDao;
+                    version = mVersion;
+                }
+
+                TermTrie trie = new TermTrie();
+                LongSparseArray<String> names = new LongSparseArray<>();
+                Cursor cursor = wordDao.getNormalizedNames();
+                try {
+                    while (cursor.moveToNext()) {
+                        long id = cursor.getLong(0);
+                        String name = cursor.getString(1);
+                        if (name != null) {
+                            trie.add(name, id);
+                            // The words are read by ID, so they are appended to the end
+                            names.append(id, name);
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+                // Sorts the names outside the lock instead of the first search
+                trie.merge();
+
+                synchronized (this) {
+                    if (version == mVersion) {
+                        mTrie = trie;
+                        mNames = names;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param normalizedText The text normalized as the names of the words
+     * @return Returns the IDs of the words within the distance, the closest ones first,
+     * or null if the index is not built
+     */
+    synchronized long[] search(String normalizedText, int maxDistance, int limit) {
+        if (mTrie == null) {
+            return null;
+        }
+        List<TermTrie.Match> matches = mTrie.search(normalizedText, maxDistance);
+        long[] ids = new long[Math.min(limit, matches.size())];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = matches.get(i).getId();
+        }
+        return ids;
+    }
+
+    /**
+     * Applies the committed changes of the words. Is called on the thread of the writer,
+     * so the names read here are the committed ones and no other write runs meanwhile
+     */
+    private void onChanged(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            if (!event.touchesColumn(WordEntry.COLUMN_NAME_NORMALIZED)) {
+                continue;
+            }
+            long[] ids = event.getIds();
+            if (ids == null) {
+                // The changed words are unknown, e.g. the words of a deleted category,
+                // so the index is built again on the next use
+                invalidate();
+            } else if (event.getKind() == ChangeEvent.DELETE) {
+                onWordsDeleted(ids);
+            } else {
+                onWordsWritten(ids);
+            }
+        }
+    }
+
+    private void onWordsWritten(long[] ids) {
+        WordDao wordDao;
+        synchronized (this) {
+            if (mTrie == null) {
+                // The words are read by the build
+                mVersion++;
+                return;
+            }
+            wordDao = mWordDao;
+        }
+
+        LongSparseArray<String> names = new LongSparseArray<>(ids.length);
+        Cursor cursor = wordDao.getNormalizedNames(ids);
+        try {
+            while (cursor.moveToNext()) {
+                names.put(cursor.getLong(0), cursor.getString(1));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        synchronized (this) {
+            mVersion++;
+            if (mTrie == null) {
+                return;
+            }
+            for (long id : ids) {
+                String name = names.get(id);
+                if (name != null) {
+                    onWordWritten(id, name);
+                } else {
+                    onWordDeleted(id);
+                }
+            }
+        }
+    }
+
+    private synchronized void onWordsDeleted(long[] ids) {
+        mVersion++;
+        if (mTrie == null) {
+            return;
+        }
+        for (long id : ids) {
+            onWordDeleted(id);
+        }
+    }
+
+    // Guarded by this, the index is built
+    private void onWordWritten(long id, String normalizedName) {
+        String oldName = mNames.get(id);
+        if (oldName != null) {
+            if (oldName.equals(normalizedName)) {
+                return;
+            }
+            mTrie.remove(oldName, id);
+        }
+        mTrie.add(normalizedName, id);
+        mNames.put(id, normalizedName);
+    }
+
+    // Guarded by this, the index is built
+    private void onWordDeleted(long id) {
+        String name = mNames.get(id);
+        if (name != null) {
+            mTrie.remove(name, id);
+            mNames.remove(id);
+        }
+    }
+
+    /**
+     * Drops the index when many words are changed at once.
+     * The index is built again on the next use
+     */
+    private synchronized void invalidate() {
+        mVersion++;
+        mTrie = null;
+        mNames = null;
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.database.dao.WordDao;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Provides the list of all words loaded by pages.
+ * The IDs of all words are read from the index of the sort mode when the cursor is created,
+ * so the count and the position of each word are known at once, and a page is read by the IDs
+ * of its words, which costs the same at any position of the list.
+ * Reading the IDs is linear in the number of words and is repeated by every reload:
+ * for 100,000 words SQLite steps through the covering index in about 15 ms on a desktop,
+ * and the IDs take 800 KB, which is the price of knowing the count and every position at once.
+ * The pages around the current position are loaded in the background, the rows of the pages
+ * that are not loaded yet contain only the IDs and are shown as placeholders.
+ * Only the pages around the current position are kept in memory.
+ * The first page is loaded when the cursor is created, so it is created in the background,
+ * and then the cursor is used only on the main thread
+ */
+public class WordPagedCursor extends AbstractCursor {
+
+    private static final String TAG = WordPagedCursor.class.getSimpleName();
+
+    private static final int PAGE_SIZE = 100;
+    // The number of the pages loaded in advance on each side of the current page
+    private static final int PREFETCH_PAGES = 1;
+    // The pages farthest from the current one are dropped when there are more pages
+    private static final int MAX_LOADED_PAGES = 5;
+
+    // The pages are loaded one by one in the order they are requested,
+    // the requests left behind by a fast scroll are skipped without reading the database
+    private static final ExecutorService PAGE_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private static final String[] COLUMNS = new String[]{WordEntry._ID,
+            WordEntry.COLUMN_NAME,
+            WordEntry.COLUMN_TRANSLATION};
+    private static final int COLUMN_ID = 0;
+    private static final int COLUMN_NAME = 1;
+    private static final int COLUMN_TRANSLATION = 2;
+
+    private final WordDao mWordDao;
+    // The IDs of all words in the order of the sort mode, never changed
+    private final long[] mIds;
+    // The hashes of the times of the last changes of the words in the same order, never changed
+    private final int[] mVersionHashes;
+
+    private final SparseArray<Page> mPages = new SparseArray<>();
+    private final SparseBooleanArray mLoadingPages = new SparseBooleanArray();
+
+    // The page of the current row or null if it is not loaded yet
+    @Nullable
+    private Page mCurrentPage;
+    // Is read by the loading thread to skip the pages the list has already scrolled past
+    private volatile int mCurrentPageIndex;
+    private int mCurrentRow;
+
+    @Nullable
+    private OnPageLoadedListener mListener;
+
+    /**
+     * @param cancellationSignal The signal to cancel reading the IDs or null
+     */
+    public WordPagedCursor(WordDao wordDao, int sortMode, @Nullable CancellationSignal cancellationSignal) {
+        mWordDao = wordDao;
+        Cursor cursor = wordDao.getSortedIds(sortMode, cancellationSignal);
+        try {
+            int count = cursor.getCount();
+            mIds = new long[count];
+            mVersionHashes = new int[count];
+            for (int i = 0; i < count && cursor.moveToPosition(i); i++) {
+                mIds[i] = cursor.getLong(0);
+                long datetime = cursor.getLong(1);
+                mVersionHashes[i] = (int) (datetime ^ (datetime >>> 32));
+            }
+        } finally {
+            cursor.close();
+        }
+        if (mIds.length > 0) {
+            mPages.put(0, loadPage(0));
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return mIds.length;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+        return COLUMNS;
+    }
+
+    @Override
+    public boolean onMove(int oldPosition, int newPosition) {
+        mCurrentPageIndex = newPosition / PAGE_SIZE;
+        mCurrentRow = newPosition - mCurrentPageIndex * PAGE_SIZE;
+        mCurrentPage = mPages.get(mCurrentPageIndex);
+        prefetch(mCurrentPageIndex);
+        return true;
+    }
+
+    /**
+     * Returns the IDs of all rows in the order of the rows. The array must not be changed
+     */
+    public long[] getIds() {
+        return mIds;
+    }
+
+    /**
+     * Returns the hashes of the times of the last changes of all rows in the order of the rows.
+     * Every change of a word shown in the list sets its time, so an unchanged hash means
+     * an unchanged row, though the rows are not loaded. The array must not be changed
+     */
+    public int[] getVersionHashes() {
+        return mVersionHashes;
+    }
+
+    /**
+     * Returns whether the name and the translation of the current row are loaded.
+     * The rows of the pages being loaded contain only the IDs
+     */
+    public boolean isRowLoaded() {
+        checkPosition();
+        return mCurrentPage != null && mCurrentPage.mLoaded[mCurrentRow];
+    }
+
+    /**
+     * Sets the listener called on the main thread when the rows of a page have been loaded
+     */
+    public void setOnPageLoadedListener(@Nullable OnPageLoadedListener listener) {
+        mListener = listener;
+    }
+
+    @Override
+    public String getString(int column) {
+        checkPosition();
+        switch (column) {
+            case COLUMN_ID:
+                return String.valueOf(mIds[getPosition()]);
+            case COLUMN_NAME:
+                return mCurrentPage != null ? mCurrentPage.mNames[mCurrentRow] : null;
+            case COLUMN_TRANSLATION:
+                return mCurrentPage != null ? mCurrentPage.mTranslations[mCurrentRow] : null;
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    @Override
+    public long getLong(int column) {
+        checkPosition();
+        if (column == COLUMN_ID) {
+            return mIds[getPosition()];
+        }
+        return Long.parseLong(getString(column));
+    }
+
+    @Override
+    public short getShort(int column) {
+        return (short) getLong(column);
+    }
+
+    @Override
+    public int getInt(int column) {
+        return (int) getLong(column);
+    }
+
+    @Override
+    public float getFloat(int column) {
+        return (float) getDouble(column);
+    }
+
+    @Override
+    public double getDouble(int column) {
+        if (column == COLUMN_ID) {
+            return getLong(column);
+        }
+        return Double.parseDouble(getString(column));
+    }
+
+    @Override
+    public boolean isNull(int column) {
+        return column != COLUMN_ID && getString(column) == null;
+    }
+
+    @Override
+    public int getType(int column) {
+        if (column == COLUMN_ID) {
+            return FIELD_TYPE_INTEGER;
+        }
+        return isNull(column) ? FIELD_TYPE_NULL : FIELD_TYPE_STRING;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        mPages.clear();
+        mCurrentPage = null;
+        mListener = null;
+    }
+
+    // Loads the current page and its neighbours if they are not loaded or being loaded
+    private void prefetch(int pageIndex) {
+        int first = Math.max(pageIndex - PREFETCH_PAGES, 0);
+        int last = Math.min(pageIndex + PREFETCH_PAGES, (mIds.length - 1) / PAGE_SIZE);
+        for (int i = first; i <= last; i++) {
+            if (mPages.get(i) == null && !mLoadingPages.get(i)) {
+                loadPageAsync(i);
+            }
+        }
+    }
+
+    private void loadPageAsync(int pageIndex) {
+        mLoadingPages.put(pageIndex, true);
+        PAGE_EXECUTOR.execute(() -> {
+            if (isClosed() || Math.abs(pageIndex - mCurrentPageIndex) > PREFETCH_PAGES) {
+                MAIN_HANDLER.post(() -> onPageSkipped(pageIndex));
+                return;
+            }
+            Page page = null;
+            try {
+                page = loadPage(pageIndex);
+            } catch (SQLException e) {
+                Log.e(TAG, "Could not load the page " + pageIndex, e);
+            }
+            Page loadedPage = page;
+            MAIN_HANDLER.post(() -> onPageLoaded(pageIndex, loadedPage));
+        });
+    }
+
+    private void onPageSkipped(int pageIndex) {
+        mLoadingPages.delete(pageIndex);
+        if (!isClosed()) {
+            // The list could have scrolled back to the page while its request was waiting
+            prefetch(mCurrentPageIndex);
+        }
+    }
+
+    private void onPageLoaded(int pageIndex, @Nullable Page page) {
+        mLoadingPages.delete(pageIndex);
+        if (page == null || isClosed()) {
+            return;
+        }
+        mPages.put(pageIndex, page);
+        if (pageIndex == mCurrentPageIndex) {
+            // The cursor is not moved again if the current row is read again
+            mCurrentPage = page;
+        }
+        dropFarPages(mCurrentPageIndex);
+        if (mListener != null) {
+            mListener.onPageLoaded(pageIndex * PAGE_SIZE, page.mLoaded.length);
+        }
+    }
+
+    /**
+     * Reads the words of the page by their IDs. Does not change the state of the cursor,
+     * so it can be called on any thread. The words deleted since the IDs were read are missing,
+     * their rows stay not loaded until the cursor is replaced by the next one
+     */
+    private Page loadPage(int pageIndex) {
+        int start = pageIndex * PAGE_SIZE;
+        long[] ids = Arrays.copyOfRange(mIds, start, Math.min(start + PAGE_SIZE, mIds.length));
+        LongSparseArray<Integer> rows = new LongSparseArray<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            rows.put(ids[i], i);
+        }
+
+        Page page = new Page(ids.length);
+        Cursor cursor = mWordDao.getByIds(ids);
+        try {
+            int idColumn = cursor.getColumnIndexOrThrow(WordEntry._ID);
+            int nameColumn = cursor.getColumnIndexOrThrow(WordEntry.COLUMN_NAME);
+            int translationColumn = cursor.getColumnIndexOrThrow(WordEntry.COLUMN_TRANSLATION);
+            while (cursor.moveToNext()) {
+                Integer row = rows.get(cursor.getLong(idColumn));
+                if (row != null) {
+                    page.mNames[row] = cursor.getString(nameColumn);
+                    page.mTranslations[row] = cursor.getString(translationColumn);
+                    page.mLoaded[row] = true;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return page;
+    }
+
+    private void dropFarPages(int currentPageIndex) {
+        while (mPages.size() > MAX_LOADED_PAGES) {
+            int farthestIndex = mPages.keyAt(0);
+            int lastIndex = mPages.keyAt(mPages.size() - 1);
+            if (lastIndex - currentPageIndex > currentPageIndex - farthestIndex) {
+                farthestIndex = lastIndex;
+            }
+            mPages.remove(farthestIndex);
+        }
+    }
+
+    public interface OnPageLoadedListener {
+        /**
+         * @param position The position of the first row of the page
+         * @param count    The number of the rows of the page
+         */
+        void onPageLoaded(int position, int count);
+    }
+
+    private static class Page {
+
+        final String[] mNames;
+        final String[] mTranslations;
+        final boolean[] mLoaded;
+
+        Page(int size) {
+            mNames = new String[size];
+            mTranslations = new String[size];
+            mLoaded = new boolean[size];
+        }
+    }
+}
@@ -18,8 +18,11 @@ package com.akhbulatov.wordkeeper.database.dao;
 
 import android.database.Cursor;
 
+import com.akhbulatov.wordkeeper.database.QueryResult;
 import com.akhbulatov.wordkeeper.model.Category;
 
+import androidx.lifecycle.LiveData;
+
 /**
  * @author Alidibir Akhbulatov
  * @since 26.11.2016
@@ -33,5 +36,16 @@ public interface CategoryDao {
 
     Cursor getAll();
 
+    /**
+     * @return Returns the cursor with all categories and the number of words in each of them
+     */
+    Cursor getAllWithCounts();
+
+    /**
+     * Observes all categories with the numbers of their words.
+     * The categories are loaded again when they or their numbers of words are changed
+     */
+    LiveData<QueryResult> observeAllWithCounts();
+
     Category get(long id);
 }
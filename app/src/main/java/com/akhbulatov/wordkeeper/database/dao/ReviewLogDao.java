@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database.dao;
+
+import com.akhbulatov.wordkeeper.model.ReviewDay;
+import com.akhbulatov.wordkeeper.model.ReviewEvent;
+
+import java.util.List;
+
+/**
+ * The log of the reviews. The recent reviews are kept one row per review,
+ * the older ones are compacted into the sums of each word and day,
+ * so the log grows with the number of the days the words were reviewed on
+ * rather than with the number of the reviews
+ */
+public interface ReviewLogDao {
+    /**
+     * Appends the reviews in one transaction. The reviews of the words
+     * that no longer exist are skipped
+     *
+     * @return Returns the number of the appended reviews
+     */
+    int append(List<ReviewEvent> events);
+
+    /**
+     * Adds the reviews older than the time to the sums of their words and days
+     * and deletes them in one transaction
+     *
+     * @param before The time in milliseconds, should be the start of a day,
+     *               so the reviews of one day are not split between the sums and the log
+     * @return Returns the number of the compacted reviews
+     */
+    int compact(long before);
+
+    /**
+     * Gets the reviews of the word which are not compacted yet by the index of the word
+     *
+     * @return Returns the reviews, the latest first
+     */
+    List<ReviewEvent> getHistory(long wordId, int limit);
+
+    /**
+     * Gets all reviews of the word by day, both the compacted and the recent ones
+     *
+     * @return Returns the days with reviews in the order of the days
+     */
+    List<ReviewDay> getDailyHistory(long wordId);
+
+    /**
+     * Gets the reviews of all words by day in the period
+     *
+     * @param fromDay The first day of the period, see {@link ReviewDay#toDay(long)}
+     * @param toDay   The last day of the period
+     * @return Returns the days with reviews in the order of the days
+     */
+    List<ReviewDay> getReviewsPerDay(long fromDay, long toDay);
+}
@@ -17,9 +17,17 @@
 package com.akhbulatov.wordkeeper.database.dao;
 
 import android.database.Cursor;
+import android.os.CancellationSignal;
 
+import com.akhbulatov.wordkeeper.database.QueryResult;
+import com.akhbulatov.wordkeeper.model.ReviewCard;
 import com.akhbulatov.wordkeeper.model.Word;
 
+import java.util.List;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+
 /**
  * @author Alidibir Akhbulatov
  * @since 26.11.2016
@@ -31,7 +39,160 @@ public interface WordDao {
 
     int delete(Word word);
 
+    /**
+     * Inserts the words in one transaction
+     *
+     * @return Returns the IDs of the inserted words in the same order
+     */
+    long[] insertAll(List<Word> words);
+
+    /**
+     * Updates the words in one transaction
+     *
+     * @return Returns the number of the updated words
+     */
+    int updateAll(List<Word> words);
+
+    /**
+     * Deletes the words in one transaction
+     *
+     * @return Returns the number of the deleted words
+     */
+    int deleteByIds(long[] ids);
+
+    /**
+     * Moves the words to the category in one transaction
+     *
+     * @return Returns the number of the moved words
+     */
+    int moveToCategory(long[] ids, long categoryId);
+
+    /**
+     * Recreates the sort keys of the next batch of words in the order of ID,
+     * e.g. after the language of the device has been changed
+     *
+     * @param afterId The ID of the last word of the previous batch or 0 for the first batch
+     * @return Returns the IDs of the updated words, which are empty when all words are updated
+     */
+    long[] updateNameSortKeys(long afterId);
+
+    /**
+     * Recreates the normalized name and translation of the next batch of words in the order of ID,
+     * e.g. after the normalization has been changed
+     *
+     * @param afterId The ID of the last word of the previous batch or 0 for the first batch
+     * @return Returns the IDs of the updated words, which are empty when all words are updated
+     */
+    long[] updateNormalizedColumns(long afterId);
+
+    /**
+     * Deletes the words matching the query except the excluded ones by one statement,
+     * so the IDs of the deleted words are never read
+     *
+     * @param query       The text of the search or the empty text for all words
+     * @param excludedIds The IDs of the words that are kept
+     * @return Returns the number of the deleted words
+     */
+    int deleteMatching(String query, long[] excludedIds);
+
+    /**
+     * Moves the words matching the query except the excluded ones to the category by one statement
+     *
+     * @return Returns the number of the moved words
+     * @see #deleteMatching(String, long[])
+     */
+    int moveMatching(String query, long[] excludedIds, long categoryId);
+
+    /**
+     * Counts all words matching the query, unlike {@link #search} is not limited
+     *
+     * @param query The text of the search or the empty text for all words
+     */
+    int getMatchingCount(String query);
+
+    /**
+     * Gets all words for the list. The lists of words contain only the beginning
+     * of the translation, the whole translation is read by {@link #get(long)}
+     */
     Cursor getAll(int sortMode);
 
+    /**
+     * Observes all words loaded by pages in the order of the sort mode.
+     * The words are loaded again when they are changed
+     */
+    LiveData<QueryResult> observeAll(int sortMode);
+
+    /**
+     * Observes the words of the category. The words are loaded again when they are changed
+     */
+    LiveData<QueryResult> observeByCategory(long categoryId);
+
     Word get(long id);
+
+    int getCount();
+
+    /**
+     * Gets the IDs of all words and the times of their last changes in the order of the sort mode.
+     * Reads only the index of the sort mode, so the pages of the words are then read by their IDs
+     * instead of skipping the words by an offset
+     *
+     * @param cancellationSignal The signal to cancel the query or null
+     * @return Returns the cursor with the ID and the time of each word
+     */
+    Cursor getSortedIds(int sortMode, @Nullable CancellationSignal cancellationSignal);
+
+    /**
+     * Gets the words with the IDs by the primary key
+     *
+     * @return Returns the cursor with the columns of the lists in no particular order
+     */
+    Cursor getByIds(long[] ids);
+
+    /**
+     * Finds the words whose name or translation contain a word starting with
+     * one of the words of the query. Uses the full-text index instead of scanning the table
+     *
+     * @param query              The text entered by the user
+     * @param sortMode           The sort mode for the found words
+     * @param limit              The maximum number of the found words
+     * @param cancellationSignal The signal to cancel the query or null
+     * @return Returns the cursor with the found words
+     */
+    Cursor search(String query, int sortMode, int limit, @Nullable CancellationSignal cancellationSignal);
+
+    /**
+     * Finds the words as {@link #search} and then the words whose names differ from the query
+     * by a few typos. The typos are found by the index kept in memory
+     *
+     * @return Returns the cursor with the words found by the full-text index in the order
+     * of the sort mode followed by the words with typos, the closest ones first
+     */
+    Cursor searchFuzzy(String query, int sortMode, int limit, @Nullable CancellationSignal cancellationSignal);
+
+    /**
+     * Gets the IDs and the normalized names of all words in the order of the IDs
+     */
+    Cursor getNormalizedNames();
+
+    /**
+     * Gets the IDs and the normalized names of the words with the IDs by the primary key
+     */
+    Cursor getNormalizedNames(long[] ids);
+
+    /**
+     * Gets the words due for review by the index of the due time,
+     * so the cost does not depend on the number of the words
+     *
+     * @param now   The current time in milliseconds
+     * @param limit The maximum number of the words
+     * @return Returns the words with the whole translations, the longest overdue first
+     */
+    List<ReviewCard> getDue(long now, int limit);
+
+    /**
+     * Saves the review state of the words in one transaction
+     *
+     * @return Returns the number of the updated words
+     */
+    int updateReviews(List<ReviewCard> cards);
 }
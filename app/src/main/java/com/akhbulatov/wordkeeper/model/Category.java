@@ -18,7 +18,7 @@ package com.akhbulatov.wordkeeper.model;
 
 import android.database.Cursor;
 
-import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
+import com.akhbulatov.wordkeeper.database.CategoryCursor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -64,14 +64,19 @@ public class Category {
         mName = name;
     }
 
+    // Used by the adapters of lists and spinners to show the category
+    @Override
+    public String toString() {
+        return mName;
+    }
+
     public static List<Category> getCategories(Cursor cursor) {
         List<Category> categories = new ArrayList<>(cursor.getCount());
-        while (!cursor.isAfterLast()) {
-            Category category = new Category();
-            category.setId(cursor.getLong(cursor.getColumnIndex(CategoryEntry._ID)));
-            category.setName(cursor.getString(cursor.getColumnIndex(CategoryEntry.COLUMN_NAME)));
-            categories.add(category);
-            cursor.moveToNext();
+        // Reads the same cursor, the wrapper is not closed
+        CategoryCursor categoryCursor = new CategoryCursor(cursor);
+        while (!categoryCursor.isAfterLast()) {
+            categories.add(new Category(categoryCursor.getId(), categoryCursor.getName()));
+            categoryCursor.moveToNext();
         }
         return categories;
     }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.model;
+
+/**
+ * The word with its review state, shown and graded during a review
+ */
+public class ReviewCard {
+
+    private long mId;
+    private String mName;
+    private String mTranslation;
+    // The time in milliseconds when the word should be reviewed next
+    private long mDue;
+    // The number of days after which the word is recalled with the probability of 90%,
+    // 0 if the word has never been reviewed
+    private double mStability;
+    private double mDifficulty;
+    private int mLapses;
+
+    public ReviewCard() {
+    }
+
+    public ReviewCard(long id, String name, String translation,
+                      long due, double stability, double difficulty, int lapses) {
+        mId = id;
+        mName = name;
+        mTranslation = translation;
+        mDue = due;
+        mStability = stability;
+        mDifficulty = difficulty;
+        mLapses = lapses;
+    }
+
+    public long getId() {
+        return mId;
+    }
+
+    public void setId(long id) {
+        mId = id;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void setName(String name) {
+        mName = name;
+    }
+
+    public String getTranslation() {
+        return mTranslation;
+    }
+
+    public void setTranslation(String translation) {
+        mTranslation = translation;
+    }
+
+    public long getDue() {
+        return mDue;
+    }
+
+    public void setDue(long due) {
+        mDue = due;
+    }
+
+    public double getStability() {
+        return mStability;
+    }
+
+    public void setStability(double stability) {
+        mStability = stability;
+    }
+
+    public double getDifficulty() {
+        return mDifficulty;
+    }
+
+    public void setDifficulty(double difficulty) {
+        mDifficulty = difficulty;
+    }
+
+    public int getLapses() {
+        return mLapses;
+    }
+
+    public void setLapses(int lapses) {
+        mLapses = lapses;
+    }
+
+    /**
+     * Whether the word has never been reviewed
+     */
+    public boolean isNew() {
+        return mStability <= 0;
+    }
+}
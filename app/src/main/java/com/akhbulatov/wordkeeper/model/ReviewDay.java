@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.model;
+
+import java.util.TimeZone;
+
+/**
+ * The reviews of one day, either of one word or of all words
+ */
+public class ReviewDay {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    // The number of days since the epoch in the time zone of the device
+    private long mDay;
+    private int mReviewCount;
+    // The number of the reviews where the word was forgotten
+    private int mAgainCount;
+    // The total time the words were shown, in milliseconds
+    private long mElapsed;
+
+    public ReviewDay() {
+    }
+
+    public ReviewDay(long day, int reviewCount, int againCount, long elapsed) {
+        mDay = day;
+        mReviewCount = reviewCount;
+        mAgainCount = againCount;
+        mElapsed = elapsed;
+    }
+
+    /**
+     * @return Returns the number of days since the epoch in the time zone of the device
+     */
+    public static long toDay(long time) {
+        return toDay(time, getTimeZoneOffset());
+    }
+
+    /**
+     * @param offset The offset of the time zone, see {@link #getTimeZoneOffset()}.
+     *               Taken once when many times are split into days
+     * @return Returns the number of days since the epoch in the time zone with the offset
+     */
+    public static long toDay(long time, long offset) {
+        return (time + offset) / DAY_MS;
+    }
+
+    /**
+     * @return Returns the time in milliseconds when the day starts in the time zone of the device
+     */
+    public static long toTime(long day) {
+        return day * DAY_MS - getTimeZoneOffset();
+    }
+
+    /**
+     * @return Returns the current offset of the time zone of the device from UTC in milliseconds.
+     * The days are split by the current offset, so the database splits them in the same way
+     * by one argument of a query
+     */
+    public static long getTimeZoneOffset() {
+        return TimeZone.getDefault().getOffset(System.currentTimeMillis());
+    }
+
+    public long getDay() {
+        return mDay;
+    }
+
+    public void setDay(long day) {
+        mDay = day;
+    }
+
+    public int getReviewCount() {
+        return mReviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        mReviewCount = reviewCount;
+    }
+
+    public int getAgainCount() {
+        return mAgainCount;
+    }
+
+    public void setAgainCount(int againCount) {
+        mAgainCount = againCount;
+    }
+
+    public long getElapsed() {
+        return mElapsed;
+    }
+
+    public void setElapsed(long elapsed) {
+        mElapsed = elapsed;
+    }
+}
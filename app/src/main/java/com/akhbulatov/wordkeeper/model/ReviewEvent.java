@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.model;
+
+/**
+ * One review of a word kept in the log of the reviews
+ */
+public class ReviewEvent {
+
+    private long mWordId;
+    // The time of the review in milliseconds
+    private long mTime;
+    private int mGrade;
+    // How long the word was shown before it was graded, in milliseconds
+    private long mElapsed;
+
+    public ReviewEvent() {
+    }
+
+    public ReviewEvent(long wordId, long time, int grade, long elapsed) {
+        mWordId = wordId;
+        mTime = time;
+        mGrade = grade;
+        mElapsed = elapsed;
+    }
+
+    public long getWordId() {
+        return mWordId;
+    }
+
+    public void setWordId(long wordId) {
+        mWordId = wordId;
+    }
+
+    public long getTime() {
+        return mTime;
+    }
+
+    public void setTime(long time) {
+        mTime = time;
+    }
+
+    public int getGrade() {
+        return mGrade;
+    }
+
+    public void setGrade(int grade) {
+        mGrade = grade;
+    }
+
+    public long getElapsed() {
+        return mElapsed;
+    }
+
+    public void setElapsed(long elapsed) {
+        mElapsed = elapsed;
+    }
+}
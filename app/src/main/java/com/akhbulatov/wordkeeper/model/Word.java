@@ -25,7 +25,7 @@ public class Word {
     private long mId;
     private String mName;
     private String mTranslation;
-    private String mCategory;
+    private long mCategoryId;
 
     public Word() {
     }
@@ -34,17 +34,17 @@ public class Word {
         mId = id;
     }
 
-    public Word(String name, String translation, String category) {
+    public Word(String name, String translation, long categoryId) {
         mName = name;
         mTranslation = translation;
-        mCategory = category;
+        mCategoryId = categoryId;
     }
 
-    public Word(long id, String name, String translation, String category) {
+    public Word(long id, String name, String translation, long categoryId) {
         mId = id;
         mName = name;
         mTranslation = translation;
-        mCategory = category;
+        mCategoryId = categoryId;
     }
 
     public long getId() {
@@ -71,11 +71,11 @@ public class Word {
         mTranslation = translation;
     }
 
-    public String getCategory() {
-        return mCategory;
+    public long getCategoryId() {
+        return mCategoryId;
     }
 
-    public void setCategory(String category) {
-        mCategory = category;
+    public void setCategoryId(long categoryId) {
+        mCategoryId = categoryId;
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.model;
+
+import com.akhbulatov.wordkeeper.util.LongHashSet;
+
+/**
+ * The selected words, kept by their IDs, so the selection stays the same when the list is reordered.
+ * <p>
+ * The words are either selected one by one, or all words matching a query are selected at once.
+ * In the second case the selection keeps only the query and the words the user has unselected
+ * after it, so any number of words is selected without reading their IDs
+ */
+public class WordSelection {
+
+    // The selected words, or the unselected words when all words matching the query are selected
+    private final LongHashSet mToggledIds = new LongHashSet();
+
+    private boolean mAllMatching;
+    private String mQuery;
+    private int mMatchingCount;
+
+    public boolean isSelected(long id) {
+        return mAllMatching != mToggledIds.contains(id);
+    }
+
+    public void toggle(long id) {
+        if (!mToggledIds.remove(id)) {
+            mToggledIds.add(id);
+        }
+    }
+
+    public void setSelected(long id, boolean selected) {
+        if (selected != mAllMatching) {
+            mToggledIds.add(id);
+        } else {
+            mToggledIds.remove(id);
+        }
+    }
+
+    /**
+     * Selects all words matching the query
+     *
+     * @param query         The text of the search or the empty text for all words
+     * @param matchingCount The number of the words matching the query
+     */
+    public void selectAll(String query, int matchingCount) {
+        mToggledIds.clear();
+        mAllMatching = true;
+        mQuery = query;
+        mMatchingCount = matchingCount;
+    }
+
+    /**
+     * Sets the exact number of the words matching the query, when it is counted later than selected
+     */
+    public void setMatchingCount(int matchingCount) {
+        mMatchingCount = matchingCount;
+    }
+
+    public void clear() {
+        mToggledIds.clear();
+        mAllMatching = false;
+        mQuery = null;
+        mMatchingCount = 0;
+    }
+
+    public int getCount() {
+        if (mAllMatching) {
+            return Math.max(mMatchingCount - mToggledIds.size(), 0);
+        }
+        return mToggledIds.size();
+    }
+
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    /**
+     * Whether all words matching {@link #getQuery()} are selected except {@link #getExcludedIds()}
+     */
+    public boolean isAllMatching() {
+        return mAllMatching;
+    }
+
+    public String getQuery() {
+        return mQuery;
+    }
+
+    /**
+     * @return Returns the IDs of the words selected one by one
+     */
+    public long[] getIds() {
+        return mAllMatching ? new long[0] : mToggledIds.toArray();
+    }
+
+    /**
+     * @return Returns the IDs of the words unselected after all words matching the query were selected
+     */
+    public long[] getExcludedIds() {
+        return mAllMatching ? mToggledIds.toArray() : new long[0];
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.repository;
+
+import android.content.Context;
+
+import com.akhbulatov.wordkeeper.database.CategoryDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.ChangeEvent;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter.WriteCallback;
+import com.akhbulatov.wordkeeper.database.dao.CategoryDao;
+import com.akhbulatov.wordkeeper.model.Category;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Changes the categories in the background through {@link DatabaseWriter},
+ * so the main thread never waits for the database.
+ * Reports each change of the categories to {@link com.akhbulatov.wordkeeper.database.ChangeBus}
+ */
+public class CategoryRepository {
+
+    private final CategoryDao mCategoryDao;
+    private final DatabaseWriter mWriter;
+
+    public CategoryRepository(Context context) {
+        mCategoryDao = new CategoryDatabaseAdapter(context);
+        mWriter = DatabaseWriter.getInstance(context);
+    }
+
+    /**
+     * @param callback Receives the ID of the inserted category
+     */
+    public void insert(Category category, @Nullable WriteCallback<Long> callback) {
+        mWriter.execute(changes -> {
+            long id = mCategoryDao.insert(category);
+            if (id != -1) {
+                changes.add(new ChangeEvent(CategoryEntry.TABLE_NAME, ChangeEvent.INSERT, new long[]{id}));
+            }
+            return id;
+        }, callback);
+    }
+
+    /**
+     * @param callback Receives the number of the updated categories
+     */
+    public void update(Category category, @Nullable WriteCallback<Integer> callback) {
+        mWriter.execute(changes -> {
+            int count = mCategoryDao.update(category);
+            if (count > 0) {
+                changes.add(new ChangeEvent(CategoryEntry.TABLE_NAME, ChangeEvent.UPDATE,
+                        new long[]{category.getId()}));
+            }
+            return count;
+        }, callback);
+    }
+
+    /**
+     * Deletes the category along with its words
+     *
+     * @param callback Receives the number of the deleted categories
+     */
+    public void delete(Category category, @Nullable WriteCallback<Integer> callback) {
+        mWriter.execute(changes -> {
+            int count = mCategoryDao.delete(category);
+            if (count > 0) {
+                changes.add(new ChangeEvent(CategoryEntry.TABLE_NAME, ChangeEvent.DELETE,
+                        new long[]{category.getId()}));
+                // The IDs of the words deleted by the database along with the category are not known
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.DELETE, null));
+            }
+            return count;
+        }, callback);
+    }
+}
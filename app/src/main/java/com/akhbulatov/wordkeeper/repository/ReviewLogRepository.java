@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.repository;
+
+import android.content.Context;
+
+import com.akhbulatov.wordkeeper.database.ChangeEvent;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewDayEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewLogEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter.WriteCallback;
+import com.akhbulatov.wordkeeper.database.ReviewLogDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.dao.ReviewLogDao;
+import com.akhbulatov.wordkeeper.model.ReviewDay;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Changes the review log in the background through {@link DatabaseWriter}.
+ * The reviews themselves are appended together with the review state of the words
+ * by {@link WordRepository#updateReviews}
+ */
+public class ReviewLogRepository {
+
+    // The reviews of so many recent days are kept one row per review
+    public static final int RECENT_DAYS = 90;
+
+    private final ReviewLogDao mReviewLogDao;
+    private final DatabaseWriter mWriter;
+
+    public ReviewLogRepository(Context context) {
+        mReviewLogDao = new ReviewLogDatabaseAdapter(context);
+        mWriter = DatabaseWriter.getInstance(context);
+    }
+
+    /**
+     * Compacts the reviews older than {@link #RECENT_DAYS} days into the sums of each word and day
+     *
+     * @param today    The current day, see {@link ReviewDay#toDay(long)}
+     * @param callback Receives the number of the compacted reviews
+     */
+    public void compact(long today, @Nullable WriteCallback<Integer> callback) {
+        long before = ReviewDay.toTime(today - RECENT_DAYS);
+        mWriter.execute(changes -> {
+            int count = mReviewLogDao.compact(before);
+            if (count > 0) {
+                changes.add(new ChangeEvent(ReviewLogEntry.TABLE_NAME, ChangeEvent.DELETE, null));
+                changes.add(new ChangeEvent(ReviewDayEntry.TABLE_NAME, ChangeEvent.UPDATE, null));
+            }
+            return count;
+        }, callback);
+    }
+}
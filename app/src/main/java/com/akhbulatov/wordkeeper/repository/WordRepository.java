@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.repository;
+
+import android.content.Context;
+
+import com.akhbulatov.wordkeeper.database.ChangeEvent;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewLogEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter.WriteCallback;
+import com.akhbulatov.wordkeeper.database.ReviewLogDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.WordDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.dao.ReviewLogDao;
+import com.akhbulatov.wordkeeper.database.dao.WordDao;
+import com.akhbulatov.wordkeeper.model.ReviewCard;
+import com.akhbulatov.wordkeeper.model.ReviewEvent;
+import com.akhbulatov.wordkeeper.model.Word;
+import com.akhbulatov.wordkeeper.model.WordSelection;
+import com.akhbulatov.wordkeeper.util.SharedPreferencesManager;
+
+import java.util.List;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Changes the words in the background through {@link DatabaseWriter},
+ * so the main thread never waits for the database.
+ * Reports each change of the words to {@link com.akhbulatov.wordkeeper.database.ChangeBus}
+ */
+public class WordRepository {
+
+    private final Context mContext;
+    private final WordDao mWordDao;
+    private final ReviewLogDao mReviewLogDao;
+    private final DatabaseWriter mWriter;
+
+    public WordRepository(Context context) {
+        mContext = context.getApplicationContext();
+        mWordDao = new WordDatabaseAdapter(context);
+        mReviewLogDao = new ReviewLogDatabaseAdapter(context);
+        mWriter = DatabaseWriter.getInstance(context);
+    }
+
+    /**
+     * @param callback Receives the ID of the inserted word
+     */
+    public void insert(Word word, @Nullable WriteCallback<Long> callback) {
+        mWriter.execute(changes -> {
+            long id = mWordDao.insert(word);
+            if (id != -1) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.INSERT, new long[]{id}));
+            }
+            return id;
+        }, callback);
+    }
+
+    /**
+     * @param callback Receives the number of the updated words
+     */
+    public void update(Word word, @Nullable WriteCallback<Integer> callback) {
+        mWriter.execute(changes -> {
+            int count = mWordDao.update(word);
+            if (count > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.UPDATE, new long[]{word.getId()}));
+            }
+            return count;
+        }, callback);
+    }
+
+    /**
+     * @param callback Receives the number of the deleted words
+     */
+    public void deleteByIds(long[] ids, @Nullable WriteCallback<Integer> callback) {
+        mWriter.execute(changes -> {
+            int count = mWordDao.deleteByIds(ids);
+            if (count > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.DELETE, ids));
+            }
+            return count;
+        }, callback);
+    }
+
+    /**
+     * Deletes the selected words. When all words matching a query are selected,
+     * they are deleted by the query without reading their IDs
+     *
+     * @param callback Receives the number of the deleted words
+     */
+    public void delete(WordSelection selection, @Nullable WriteCallback<Integer> callback) {
+        if (!selection.isAllMatching()) {
+            deleteByIds(selection.getIds(), callback);
+            return;
+        }
+        String query = selection.getQuery();
+        long[] excludedIds = selection.getExcludedIds();
+        mWriter.execute(changes -> {
+            int count = mWordDao.deleteMatching(query, excludedIds);
+            if (count > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.DELETE, null));
+            }
+            return count;
+        }, callback);
+    }
+
+    /**
+     * @param callback Receives the number of the moved words
+     */
+    public void moveToCategory(long[] ids, long categoryId, @Nullable WriteCallback<Integer> callback) {
+        mWriter.execute(changes -> {
+            int count = mWordDao.moveToCategory(ids, categoryId);
+            if (count > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.UPDATE, ids,
+                        WordEntry.COLUMN_CATEGORY_ID, WordEntry.COLUMN_DATETIME));
+            }
+            return count;
+        }, callback);
+    }
+
+    /**
+     * Moves the selected words to the category in the same way as {@link #delete(WordSelection, WriteCallback)}
+     *
+     * @param callback Receives the number of the moved words
+     */
+    public void moveToCategory(WordSelection selection, long categoryId, @Nullable WriteCallback<Integer> callback) {
+        if (!selection.isAllMatching()) {
+            moveToCategory(selection.getIds(), categoryId, callback);
+            return;
+        }
+        String query = selection.getQuery();
+        long[] excludedIds = selection.getExcludedIds();
+        mWriter.execute(changes -> {
+            int count = mWordDao.moveMatching(query, excludedIds, categoryId);
+            if (count > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.UPDATE, null,
+                        WordEntry.COLUMN_CATEGORY_ID, WordEntry.COLUMN_DATETIME));
+            }
+            return count;
+        }, callback);
+    }
+
+    /**
+     * Recreates the sort keys and the normalized columns of the words marked as stale
+     * by an upgrade of the database or a change of the language of the device. Each batch of words is a separate write,
+     * so the other writes do not wait for all words and the screens show the words meanwhile.
+     * The mark is removed after the last batch, so a refill interrupted by the end
+     * of the process is started again the next time
+     */
+    public void updateStaleColumns() {
+        updateNameSortKeys(0);
+    }
+
+    private void updateNameSortKeys(long afterId) {
+        mWriter.execute(changes -> {
+            // The mark is read by the writer, since the database is upgraded by its first query
+            if (!SharedPreferencesManager.isNameSortKeysStale(mContext)) {
+                return new long[0];
+            }
+            long[] ids = mWordDao.updateNameSortKeys(afterId);
+            if (ids.length > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.UPDATE, ids,
+                        WordEntry.COLUMN_NAME_SORT_KEY));
+            }
+            return ids;
+        }, ids -> {
+            if (ids.length > 0) {
+                updateNameSortKeys(ids[ids.length - 1]);
+            } else {
+                SharedPreferencesManager.setNameSortKeysStale(mContext, false);
+                updateNormalizedColumns(0);
+            }
+        });
+    }
+
+    private void updateNormalizedColumns(long afterId) {
+        mWriter.execute(changes -> {
+            if (!SharedPreferencesManager.isNormalizedColumnsStale(mContext)) {
+                return new long[0];
+            }
+            // The triggers update the full-text index of the words
+            long[] ids = mWordDao.updateNormalizedColumns(afterId);
+            if (ids.length > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.UPDATE, ids,
+                        WordEntry.COLUMN_NAME_NORMALIZED, WordEntry.COLUMN_TRANSLATION_NORMALIZED));
+            }
+            return ids;
+        }, ids -> {
+            if (ids.length > 0) {
+                updateNormalizedColumns(ids[ids.length - 1]);
+            } else {
+                SharedPreferencesManager.setNormalizedColumnsStale(mContext, false);
+            }
+        });
+    }
+
+    /**
+     * Saves the review state of the graded words and appends their reviews to the log
+     * in one transaction, so the log always matches the state. The words deleted
+     * in the meantime are skipped, so they do not fail the grades of the other words
+     *
+     * @param callback Receives the number of the updated words
+     */
+    public void updateReviews(List<ReviewCard> cards, List<ReviewEvent> events,
+                              @Nullable WriteCallback<Integer> callback) {
+        long[] ids = new long[cards.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cards.get(i).getId();
+        }
+        mWriter.execute(changes -> {
+            int count = mWordDao.updateReviews(cards);
+            if (count > 0) {
+                changes.add(new ChangeEvent(WordEntry.TABLE_NAME, ChangeEvent.UPDATE, ids,
+                        WordEntry.COLUMN_DUE, WordEntry.COLUMN_STABILITY,
+                        WordEntry.COLUMN_DIFFICULTY, WordEntry.COLUMN_LAPSES));
+            }
+            if (mReviewLogDao.append(events) > 0) {
+                changes.add(new ChangeEvent(ReviewLogEntry.TABLE_NAME, ChangeEvent.INSERT, null));
+            }
+            return count;
+        }, callback);
+    }
+}
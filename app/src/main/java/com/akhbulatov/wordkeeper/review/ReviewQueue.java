@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.review;
+
+import com.akhbulatov.wordkeeper.model.ReviewCard;
+
+import androidx.annotation.Nullable;
+
+/**
+ * The queue of the words to review stored in a fixed array.
+ * The words are taken from the head and added to the tail, which wrap around the array,
+ * so the queue never moves or allocates after it is created
+ */
+final class ReviewQueue {
+
+    private final ReviewCard[] mCards;
+    private int mHead;
+    private int mSize;
+
+    ReviewQueue(int capacity) {
+        mCards = new ReviewCard[capacity];
+    }
+
+    /**
+     * @return Returns false if the queue is full
+     */
+    boolean offer(ReviewCard card) {
+        if (mSize == mCards.length) {
+            return false;
+        }
+        mCards[(mHead + mSize) % mCards.length] = card;
+        mSize++;
+        return true;
+    }
+
+    @Nullable
+    ReviewCard peek() {
+        return mSize > 0 ? mCards[mHead] : null;
+    }
+
+    @Nullable
+    ReviewCard poll() {
+        if (mSize == 0) {
+            return null;
+        }
+        ReviewCard card = mCards[mHead];
+        mCards[mHead] = null;
+        mHead = (mHead + 1) % mCards.length;
+        mSize--;
+        return card;
+    }
+
+    ReviewCard get(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + mSize);
+        }
+        return mCards[(mHead + index) % mCards.length];
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    int getFreeCount() {
+        return mCards.length - mSize;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.review;
+
+import com.akhbulatov.wordkeeper.model.ReviewCard;
+
+/**
+ * Schedules the reviews of the words by the forgetting curve.
+ * <p>
+ * The model follows FSRS with its default parameters. Each word has a stability, the number of days
+ * after which it is recalled with the probability of 90%, and a difficulty from 1 to 10.
+ * A successful answer increases the stability, the more the harder the word was to recall,
+ * a forgotten word gets a smaller stability. The probability to recall the word follows the power
+ * forgetting curve of FSRS 4.5, which is 90% after the number of days equal to the stability.
+ * The word is due again when the probability drops to 90%, i.e. the interval equals the stability.
+ * So the time of the last review is not stored, it is the due time minus the stability
+ */
+public final class ReviewScheduler {
+
+    public static final int GRADE_AGAIN = 1;
+    public static final int GRADE_HARD = 2;
+    public static final int GRADE_GOOD = 3;
+    public static final int GRADE_EASY = 4;
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    // About 15 minutes, so a forgotten word is shown again in the same day
+    private static final double MIN_STABILITY = 0.01;
+    private static final double MAX_STABILITY = 36500;
+    private static final double MIN_DIFFICULTY = 1;
+    private static final double MAX_DIFFICULTY = 10;
+
+    // The forgetting curve of FSRS 4.5: (1 + FACTOR * days / stability) ^ DECAY.
+    // The factor makes the probability 90% when the days equal the stability
+    private static final double DECAY = -0.5;
+    private static final double FACTOR = 19.0 / 81;
+
+    // The default parameters of FSRS 4.5.
+    // 0-3: the initial stability by the grade, 4-7: the difficulty,
+    // 8-10 and 15-16: the stability after a recall, 11-14: the stability after a lapse
+    private static final double[] W = {0.4872, 1.4003, 3.7145, 13.8206, 5.1618, 1.2298, 0.8975, 0.031,
+            1.6474, 0.1367, 1.0461, 2.1072, 0.0793, 0.3246, 1.587, 0.2272, 2.8755};
+
+    private ReviewScheduler() {
+    }
+
+    /**
+     * Updates the review state of the word by the answer and schedules its next review
+     *
+     * @param grade One of the grades from {@link #GRADE_AGAIN} to {@link #GRADE_EASY}
+     * @param now   The time of the answer in milliseconds
+     */
+    public static void grade(ReviewCard card, int grade, long now) {
+        if (grade < GRADE_AGAIN || grade > GRADE_EASY) {
+            throw new IllegalArgumentException("Unknown grade " + grade);
+        }
+
+        double stability;
+        double difficulty;
+        if (card.isNew()) {
+            stability = W[grade - 1];
+            difficulty = getInitialDifficulty(grade);
+        } else {
+            double retrievability = getRetrievability(card, now);
+            if (grade == GRADE_AGAIN) {
+                stability = getStabilityAfterLapse(card.getStability(), card.getDifficulty(), retrievability);
+                card.setLapses(card.getLapses() + 1);
+            } else {
+                stability = getStabilityAfterRecall(card.getStability(), card.getDifficulty(),
+                        retrievability, grade);
+            }
+            difficulty = getNextDifficulty(card.getDifficulty(), grade);
+        }
+
+        stability = clamp(stability, MIN_STABILITY, MAX_STABILITY);
+        card.setStability(stability);
+        card.setDifficulty(difficulty);
+        card.setDue(now + getInterval(stability));
+    }
+
+    /**
+     * Returns the probability to recall the word at the time, 0 for a new word
+     */
+    public static double getRetrievability(ReviewCard card, long now) {
+        if (card.isNew()) {
+            return 0;
+        }
+        long lastReview = card.getDue() - getInterval(card.getStability());
+        double elapsedDays = Math.max(0, now - lastReview) / (double) DAY_MS;
+        return Math.pow(1 + FACTOR * elapsedDays / card.getStability(), DECAY);
+    }
+
+    // The curve gives the probability of 90% after the number of days equal to the stability,
+    // the interval for another probability r would be stability / FACTOR * (r ^ (1 / DECAY) - 1)
+    private static long getInterval(double stability) {
+        return Math.round(stability * DAY_MS);
+    }
+
+    private static double getInitialDifficulty(int grade) {
+        return clamp(W[4] - (grade - GRADE_GOOD) * W[5], MIN_DIFFICULTY, MAX_DIFFICULTY);
+    }
+
+    // Moves the difficulty by the grade and slightly back to the initial difficulty of a good answer
+    private static double getNextDifficulty(double difficulty, int grade) {
+        double next = difficulty - W[6] * (grade - GRADE_GOOD);
+        next = W[7] * getInitialDifficulty(GRADE_GOOD) + (1 - W[7]) * next;
+        return clamp(next, MIN_DIFFICULTY, MAX_DIFFICULTY);
+    }
+
+    private static double getStabilityAfterRecall(double stability, double difficulty,
+                                                  double retrievability, int grade) {
+        double hardPenalty = grade == GRADE_HARD ? W[15] : 1;
+        double easyBonus = grade == GRADE_EASY ? W[16] : 1;
+        return stability * (1 + Math.exp(W[8])
+                * (11 - difficulty)
+                * Math.pow(stability, -W[9])
+                * (Math.exp(W[10] * (1 - retrievability)) - 1)
+                * hardPenalty
+                * easyBonus);
+    }
+
+    private static double getStabilityAfterLapse(double stability, double difficulty, double retrievability) {
+        double next = W[11]
+                * Math.pow(difficulty, -W[12])
+                * (Math.pow(stability + 1, W[13]) - 1)
+                * Math.exp(W[14] * (1 - retrievability));
+        // A forgotten word never becomes more stable
+        return Math.min(next, stability);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
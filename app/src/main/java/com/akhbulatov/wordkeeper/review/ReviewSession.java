@@ -0,0 +1,319 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.review;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.LongSparseArray;
+
+import com.akhbulatov.wordkeeper.database.DatabaseWriter;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter.WriteCallback;
+import com.akhbulatov.wordkeeper.database.WordDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.dao.WordDao;
+import com.akhbulatov.wordkeeper.model.ReviewCard;
+import com.akhbulatov.wordkeeper.model.ReviewEvent;
+import com.akhbulatov.wordkeeper.repository.WordRepository;
+import com.akhbulatov.wordkeeper.util.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Shows the due words one after another and saves their grades.
+ * <p>
+ * The next due words are loaded in the background into a queue kept in memory,
+ * which is refilled before it runs out, so showing the next word never waits for the database.
+ * The grades are kept in memory and saved in one transaction every few answers
+ * together with the reviews for the log. The grades that could not be saved are kept
+ * to be saved with the next ones and the listener is notified.
+ * <p>
+ * {@link #flush()} should be called when the screen is paused, it schedules the write in the background.
+ * {@link #flushAndWait()} should be called when the screen is stopped, after that the process
+ * can be killed at any moment, so it waits until the grades are saved.
+ * <p>
+ * A word answered in this session is shown again once it is due by its new grade,
+ * e.g. a forgotten word in a few minutes. Should be used on the main thread
+ */
+public class ReviewSession {
+
+    // The number of the words kept in memory
+    private static final int QUEUE_CAPACITY = 20;
+    // The queue is refilled when so many words are left
+    private static final int REFILL_THRESHOLD = 5;
+    // The grades are saved after so many answers
+    private static final int FLUSH_EVERY = 10;
+    // The time a word is shown is limited, so the time the screen was left open
+    // is not counted as the time of the answer
+    private static final long MAX_ELAPSED_MS = 60 * 1000;
+    // The time the main thread waits for the grades to be saved, it is much shorter
+    // than the time the app is considered not responding after
+    private static final long MAX_FLUSH_WAIT_MS = 1000;
+
+    private static final ExecutorService LOAD_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final WordDao mWordDao;
+    private final WordRepository mWordRepository;
+    private final DatabaseWriter mWriter;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final ReviewQueue mQueue = new ReviewQueue(QUEUE_CAPACITY);
+    // The graded words not saved yet
+    private final List<ReviewCard> mGradedCards = new ArrayList<>();
+    private final List<ReviewEvent> mEvents = new ArrayList<>();
+    // The words answered in this session by their IDs with their last grades. They are not shown again
+    // until they are due by these grades, even if they are loaded before the grades are saved
+    private final LongSparseArray<ReviewCard> mAnsweredCards = new LongSparseArray<>();
+    // The number of the words being saved, they are still due in the database
+    private int mSavingCount;
+
+    private Listener mListener;
+    // The time in milliseconds since boot when the current word was shown
+    private long mShownTime;
+    private boolean mLoading;
+    // Whether the last load has read all due words
+    private boolean mExhausted;
+    // The earliest time a word answered in this session is due again after the last load
+    private long mNextAnsweredDue = Long.MAX_VALUE;
+    private final Runnable mRefillRunnable = this::refill;
+    private boolean mClosed;
+
+    public ReviewSession(Context context, Listener listener) {
+        // The session can outlive the screen when it is kept across the configuration changes
+        Context appContext = context.getApplicationContext();
+        mWordDao = new WordDatabaseAdapter(appContext);
+        mWordRepository = new WordRepository(appContext);
+        mWriter = DatabaseWriter.getInstance(appContext);
+        mListener = listener;
+    }
+
+    /**
+     * Sets the listener when the session is passed to the recreated screen
+     */
+    public void setListener(@Nullable Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Starts loading the due words. The listener receives the first word when it is loaded
+     */
+    public void start() {
+        refill();
+    }
+
+    /**
+     * @return Returns the word to show or null if the words are being loaded or no word is due
+     */
+    @Nullable
+    public ReviewCard getCurrentCard() {
+        return mQueue.peek();
+    }
+
+    /**
+     * Whether there is no word to show because the words are being loaded
+     */
+    public boolean isLoading() {
+        return mLoading && mQueue.size() == 0;
+    }
+
+    /**
+     * Grades the current word and shows the next one
+     *
+     * @param grade One of the grades of {@link ReviewScheduler}
+     */
+    public void grade(int grade) {
+        ReviewCard card = mQueue.poll();
+        if (card == null) {
+            throw new IllegalStateException("There is no word to grade");
+        }
+        long now = System.currentTimeMillis();
+        long elapsed = Math.min(SystemClock.elapsedRealtime() - mShownTime, MAX_ELAPSED_MS);
+        ReviewScheduler.grade(card, grade, now);
+        mGradedCards.add(card);
+        mEvents.add(new ReviewEvent(card.getId(), now, grade, elapsed));
+        mAnsweredCards.put(card.getId(), card);
+        mNextAnsweredDue = Math.min(mNextAnsweredDue, card.getDue());
+
+        if (mGradedCards.size() >= FLUSH_EVERY) {
+            flush();
+        }
+        if (mQueue.size() <= REFILL_THRESHOLD) {
+            refill();
+        }
+        notifyCardChanged();
+    }
+
+    /**
+     * Schedules the grades kept in memory to be saved in one transaction in the background.
+     * If the write fails, the grades are kept to be saved by the next flush
+     */
+    public void flush() {
+        if (mGradedCards.isEmpty()) {
+            return;
+        }
+        List<ReviewCard> cards = new ArrayList<>(mGradedCards);
+        List<ReviewEvent> events = new ArrayList<>(mEvents);
+        mGradedCards.clear();
+        mEvents.clear();
+        mSavingCount += cards.size();
+        mWordRepository.updateReviews(cards, events, new WriteCallback<Integer>() {
+            @Override
+            public void onWriteFinished(Integer count) {
+                mSavingCount -= cards.size();
+            }
+
+            @Override
+            public void onWriteFailed(RuntimeException error) {
+                mSavingCount -= cards.size();
+                // Keeps the grades before the newer ones, so the log stays in the order of the answers
+                mGradedCards.addAll(0, cards);
+                mEvents.addAll(0, events);
+                if (mListener != null) {
+                    mListener.onSaveFailed();
+                }
+            }
+        });
+    }
+
+    /**
+     * Saves the grades kept in memory and blocks until they are written, so they are kept
+     * even if the process is killed right after. The writes are small, so the main thread
+     * usually waits for a few milliseconds, and at most for {@link #MAX_FLUSH_WAIT_MS}
+     */
+    public void flushAndWait() {
+        flush();
+        mWriter.awaitPendingWrites(MAX_FLUSH_WAIT_MS);
+    }
+
+    /**
+     * Schedules the remaining grades to be saved and stops the session, the listener is no longer called.
+     * The grades that fail to be saved after that are not saved again
+     */
+    public void close() {
+        flush();
+        mClosed = true;
+        mListener = null;
+        mMainHandler.removeCallbacks(mRefillRunnable);
+    }
+
+    private void refill() {
+        if (mLoading || mClosed || mQueue.getFreeCount() == 0) {
+            return;
+        }
+        if (mExhausted) {
+            long delay = mNextAnsweredDue - System.currentTimeMillis();
+            if (delay > 0) {
+                // Loads the answered words again when the first of them is due
+                mMainHandler.removeCallbacks(mRefillRunnable);
+                if (mNextAnsweredDue != Long.MAX_VALUE) {
+                    mMainHandler.postDelayed(mRefillRunnable, delay);
+                }
+                return;
+            }
+        }
+        // The words in the queue and the graded words not saved yet are still due in the database,
+        // so more words are read to skip them
+        int limit = mQueue.getFreeCount() + mQueue.size() + mGradedCards.size() + mSavingCount;
+        long now = System.currentTimeMillis();
+        mLoading = true;
+        LOAD_EXECUTOR.execute(() -> {
+            List<ReviewCard> cards = mWordDao.getDue(now, limit);
+            mMainHandler.post(() -> onLoaded(cards, limit, now));
+        });
+    }
+
+    private void onLoaded(List<ReviewCard> cards, int limit, long now) {
+        mLoading = false;
+        if (mClosed) {
+            return;
+        }
+        mExhausted = cards.size() < limit;
+
+        boolean wasEmpty = mQueue.size() == 0;
+        LongHashSet queuedIds = new LongHashSet(mQueue.size());
+        for (int i = 0; i < mQueue.size(); i++) {
+            queuedIds.add(mQueue.get(i).getId());
+        }
+        for (ReviewCard card : cards) {
+            if (queuedIds.contains(card.getId())) {
+                continue;
+            }
+            ReviewCard answered = mAnsweredCards.get(card.getId());
+            if (answered != null) {
+                if (answered.getDue() > now) {
+                    continue;
+                }
+                if (card.getDue() < answered.getDue()) {
+                    // The last grade is not saved yet, so the word is shown with it.
+                    // The copy is graded, since the answered word can be being saved
+                    card = copy(answered);
+                }
+            }
+            if (!mQueue.offer(card)) {
+                break;
+            }
+        }
+
+        mNextAnsweredDue = Long.MAX_VALUE;
+        for (int i = 0; i < mAnsweredCards.size(); i++) {
+            long due = mAnsweredCards.valueAt(i).getDue();
+            if (due > now) {
+                mNextAnsweredDue = Math.min(mNextAnsweredDue, due);
+            }
+        }
+        if (mExhausted && mQueue.size() == 0) {
+            // Waits for the answered words to become due
+            refill();
+        }
+        if (wasEmpty) {
+            // Shows the first loaded word or reports that no word is due
+            notifyCardChanged();
+        }
+    }
+
+    private static ReviewCard copy(ReviewCard card) {
+        return new ReviewCard(card.getId(), card.getName(), card.getTranslation(),
+                card.getDue(), card.getStability(), card.getDifficulty(), card.getLapses());
+    }
+
+    private void notifyCardChanged() {
+        mShownTime = SystemClock.elapsedRealtime();
+        if (mListener != null) {
+            mListener.onCardChanged(mQueue.peek());
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Called when the word to show is changed
+         *
+         * @param card The word to show or null, see {@link #isLoading()}
+         */
+        void onCardChanged(@Nullable ReviewCard card);
+
+        /**
+         * Called when the grades could not be saved. They are saved again with the next grades
+         */
+        default void onSaveFailed() {
+        }
+    }
+}
@@ -24,22 +24,32 @@ import android.widget.TextView;
 
 import com.akhbulatov.wordkeeper.R;
 import com.akhbulatov.wordkeeper.adapter.WordAdapter;
+import com.akhbulatov.wordkeeper.database.QueryResult;
 import com.akhbulatov.wordkeeper.database.WordDatabaseAdapter;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.RecyclerView;
 
 /**
- * Shows all the words from a certain category
+ * Shows all the words from a certain category.
+ * The words are loaded again when they are changed
  */
 public class CategoryContentActivity extends AppCompatActivity {
 
+    private static final String EXTRA_CATEGORY_ID = "EXTRA_CATEGORY_ID";
     private static final String EXTRA_CATEGORY_NAME = "EXTRA_CATEGORY_NAME";
 
-    public static Intent newIntent(Context context, String categoryName) {
+    private WordAdapter mWordAdapter;
+    // The last loaded words, held until the next ones are shown
+    private QueryResult mWords;
+    private TextView mTextEmptyCategoryContent;
+
+    public static Intent newIntent(Context context, long categoryId, String categoryName) {
         Intent intent = new Intent(context, CategoryContentActivity.class);
+        intent.putExtra(EXTRA_CATEGORY_ID, categoryId);
         intent.putExtra(EXTRA_CATEGORY_NAME, categoryName);
         return intent;
     }
@@ -53,6 +63,7 @@ public class CategoryContentActivity extends AppCompatActivity {
         setSupportActionBar(toolbar);
         getSupportActionBar().setDisplayHomeAsUpEnabled(true);
 
+        long categoryId = getIntent().getLongExtra(EXTRA_CATEGORY_ID, 0);
         String categoryName = getIntent().getStringExtra(EXTRA_CATEGORY_NAME);
         setTitle(categoryName);
 
@@ -60,22 +71,43 @@ public class CategoryContentActivity extends AppCompatActivity {
         wordList.setHasFixedSize(true);
         wordList.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
 
+        mWordAdapter = new WordAdapter(null);
+        mWordAdapter.setHasStableIds(true);
+        wordList.setAdapter(mWordAdapter);
+
+        mTextEmptyCategoryContent = findViewById(R.id.text_empty_category_content);
+        mTextEmptyCategoryContent.setVisibility(View.GONE);
+
         WordDatabaseAdapter wordDbAdapter = new WordDatabaseAdapter(this);
-        wordDbAdapter.open();
+        wordDbAdapter.observeByCategory(categoryId).observe(this, this::showWords);
+    }
 
-        WordAdapter wordAdapter = new WordAdapter(wordDbAdapter.getRecordsByCategory(categoryName));
-        wordAdapter.setHasStableIds(true);
-        wordList.setAdapter(wordAdapter);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // The observer is removed at this point, so the words are no longer delivered
+        if (mWords != null) {
+            mWords.release();
+            mWords = null;
+        }
+    }
 
-        TextView textEmptyCategoryContent = findViewById(R.id.text_empty_category_content);
+    private void showWords(@Nullable QueryResult result) {
+        if (result == null) {
+            return;
+        }
+        // Holds the new words before the previous ones are released, they can be the same
+        result.acquire();
+        mWordAdapter.swapCursor(result.getCursor(), result.getDiff());
+        if (mWords != null) {
+            mWords.release();
+        }
+        mWords = result;
 
-        if (wordAdapter.getItemCount() == 0) {
-            textEmptyCategoryContent.setVisibility(View.VISIBLE);
+        if (mWordAdapter.getItemCount() == 0) {
+            mTextEmptyCategoryContent.setVisibility(View.VISIBLE);
         } else {
-            textEmptyCategoryContent.setVisibility(View.GONE);
+            mTextEmptyCategoryContent.setVisibility(View.GONE);
         }
-
-        // Closes the database already here, as it is no longer needed
-        wordDbAdapter.close();
     }
 }
@@ -28,6 +28,7 @@ import android.widget.EditText;
 import android.widget.Spinner;
 
 import com.akhbulatov.wordkeeper.R;
+import com.akhbulatov.wordkeeper.model.Category;
 import com.akhbulatov.wordkeeper.ui.dialog.WordEditorDialog;
 import com.akhbulatov.wordkeeper.ui.fragment.CategoryListFragment;
 import com.akhbulatov.wordkeeper.ui.fragment.WordListFragment;
@@ -156,25 +157,21 @@ public class MainActivity extends AppCompatActivity implements FabAddWordListene
     public void onFinishWordEditorDialog(DialogFragment dialog, int positiveTextId) {
         // Add the word
         if (positiveTextId == R.string.word_editor_action_add) {
+            // The lists are updated by the changes of the database
             mWordListFragment.addWord(dialog);
+        } else {
+            // Edit the word
+            Dialog dialogView = dialog.getDialog();
 
-            // Updates the category list only from the screen "Categories"
-            if (mCategoryListFragment != null && mCategoryListFragment.isVisible()) {
-                mCategoryListFragment.updateCategoryList();
-            } else {
-                // Edit the word
-                Dialog dialogView = dialog.getDialog();
-
-                EditText editName = dialogView.findViewById(R.id.edit_word_name);
-                EditText editTranslation = dialogView.findViewById(R.id.edit_word_translation);
-                Spinner spinnerCategories = dialogView.findViewById(R.id.spinner_categories);
+            EditText editName = dialogView.findViewById(R.id.edit_word_name);
+            EditText editTranslation = dialogView.findViewById(R.id.edit_word_translation);
+            Spinner spinnerCategories = dialogView.findViewById(R.id.spinner_categories);
 
-                String name = editName.getText().toString();
-                String translation = editTranslation.getText().toString();
-                String category = spinnerCategories.getSelectedItem().toString();
+            String name = editName.getText().toString();
+            String translation = editTranslation.getText().toString();
+            Category category = (Category) spinnerCategories.getSelectedItem();
 
-                mWordListFragment.editWord(name, translation, category);
-            }
+            mWordListFragment.editWord(name, translation, category.getId());
         }
     }
 
@@ -189,6 +186,9 @@ public class MainActivity extends AppCompatActivity implements FabAddWordListene
             case R.id.menu_drawer_categories:
                 fragmentClass = CategoryListFragment.class;
                 break;
+            case R.id.menu_drawer_review:
+                showReview();
+                break;
             case R.id.menu_drawer_rate_app:
                 showRateApp();
                 break;
@@ -239,22 +239,34 @@ public class MainActivity extends AppCompatActivity implements FabAddWordListene
         Dialog dialogView = dialog.getDialog();
         Spinner spinnerCategories = dialogView.findViewById(R.id.spinner_categories);
 
-        ArrayAdapter<CharSequence> adapter = new ArrayAdapter<>(this,
-                android.R.layout.simple_spinner_item,
-                mWordListFragment.getCategories());
+        ArrayAdapter<Category> adapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item);
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spinnerCategories.setAdapter(adapter);
 
         // Receives and shows data of the selected word to edit in the dialog
         // Data is the name, translation and category
+        long categoryId;
         if (positiveTextId == R.string.word_editor_action_edit) {
             EditText editName = dialogView.findViewById(R.id.edit_word_name);
             EditText editTranslation = dialogView.findViewById(R.id.edit_word_translation);
 
             editName.setText(mWordListFragment.getName());
             editTranslation.setText(mWordListFragment.getTranslation());
-            spinnerCategories.setSelection(adapter.getPosition(mWordListFragment.getCategory()));
+            categoryId = mWordListFragment.getCategoryId();
+        } else {
+            categoryId = -1;
         }
+
+        // The categories are shown once they are loaded
+        mWordListFragment.getCategories(snapshot -> {
+            adapter.addAll(snapshot.getCategories());
+            for (int i = 0; i < adapter.getCount(); i++) {
+                if (adapter.getItem(i).getId() == categoryId) {
+                    spinnerCategories.setSelection(i);
+                    break;
+                }
+            }
+        });
     }
 
     private void showRateApp() {
@@ -266,6 +278,10 @@ public class MainActivity extends AppCompatActivity implements FabAddWordListene
         }
     }
 
+    private void showReview() {
+        startActivity(new Intent(this, ReviewActivity.class));
+    }
+
     private void showAbout() {
         startActivity(new Intent(this, AboutActivity.class));
     }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.ui.activity;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import com.akhbulatov.wordkeeper.R;
+import com.akhbulatov.wordkeeper.model.ReviewCard;
+import com.akhbulatov.wordkeeper.review.ReviewScheduler;
+import com.akhbulatov.wordkeeper.review.ReviewSession;
+import com.akhbulatov.wordkeeper.util.CommonUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+/**
+ * Shows the due words one after another. The user recalls the translation,
+ * opens it and grades how well it was remembered.
+ * The session is kept across the configuration changes
+ */
+public class ReviewActivity extends AppCompatActivity implements ReviewSession.Listener {
+
+    private static final String BUNDLE_ANSWER_SHOWN = "BUNDLE_ANSWER_SHOWN";
+
+    private ReviewSession mSession;
+    private boolean mAnswerShown;
+
+    private View mLayoutCard;
+    private TextView mTextName;
+    private TextView mTextTranslation;
+    private Button mButtonShowAnswer;
+    private View mLayoutGrades;
+    private ProgressBar mProgressReview;
+    private TextView mTextEmptyReview;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_review);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+
+        mLayoutCard = findViewById(R.id.layout_review_card);
+        mTextName = findViewById(R.id.text_review_name);
+        mTextTranslation = findViewById(R.id.text_review_translation);
+        mButtonShowAnswer = findViewById(R.id.button_show_answer);
+        mLayoutGrades = findViewById(R.id.layout_review_grades);
+        mProgressReview = findViewById(R.id.progress_review);
+        mTextEmptyReview = findViewById(R.id.text_empty_review);
+
+        mButtonShowAnswer.setOnClickListener(v -> {
+            mAnswerShown = true;
+            showCard(mSession.getCurrentCard());
+        });
+        findViewById(R.id.button_grade_again).setOnClickListener(v -> grade(ReviewScheduler.GRADE_AGAIN));
+        findViewById(R.id.button_grade_hard).setOnClickListener(v -> grade(ReviewScheduler.GRADE_HARD));
+        findViewById(R.id.button_grade_good).setOnClickListener(v -> grade(ReviewScheduler.GRADE_GOOD));
+        findViewById(R.id.button_grade_easy).setOnClickListener(v -> grade(ReviewScheduler.GRADE_EASY));
+
+        mSession = (ReviewSession) getLastCustomNonConfigurationInstance();
+        if (mSession != null) {
+            mSession.setListener(this);
+            mAnswerShown = savedInstanceState != null
+                    && savedInstanceState.getBoolean(BUNDLE_ANSWER_SHOWN);
+        } else {
+            mSession = new ReviewSession(this, this);
+            mSession.start();
+        }
+        showCard(mSession.getCurrentCard());
+    }
+
+    @Override
+    public Object onRetainCustomNonConfigurationInstance() {
+        return mSession;
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putBoolean(BUNDLE_ANSWER_SHOWN, mAnswerShown);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Starts writing the grades kept in memory in the background
+        mSession.flush();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // The process can be killed at any moment when the screen is no longer visible,
+        // so the grades are written before returning
+        mSession.flushAndWait();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (isChangingConfigurations()) {
+            mSession.setListener(null);
+        } else {
+            mSession.close();
+        }
+    }
+
+    @Override
+    public void onCardChanged(@Nullable ReviewCard card) {
+        showCard(card);
+    }
+
+    @Override
+    public void onSaveFailed() {
+        CommonUtils.showToast(this, R.string.error_save_review);
+    }
+
+    private void grade(int grade) {
+        if (mSession.getCurrentCard() == null) {
+            return;
+        }
+        mAnswerShown = false;
+        mSession.grade(grade);
+    }
+
+    private void showCard(@Nullable ReviewCard card) {
+        if (card == null) {
+            mLayoutCard.setVisibility(View.GONE);
+            boolean loading = mSession.isLoading();
+            mProgressReview.setVisibility(loading ? View.VISIBLE : View.GONE);
+            mTextEmptyReview.setVisibility(loading ? View.GONE : View.VISIBLE);
+            return;
+        }
+        mProgressReview.setVisibility(View.GONE);
+        mTextEmptyReview.setVisibility(View.GONE);
+        mLayoutCard.setVisibility(View.VISIBLE);
+
+        mTextName.setText(card.getName());
+        mTextTranslation.setText(card.getTranslation());
+        mTextTranslation.setVisibility(mAnswerShown ? View.VISIBLE : View.INVISIBLE);
+        mButtonShowAnswer.setVisibility(mAnswerShown ? View.GONE : View.VISIBLE);
+        mLayoutGrades.setVisibility(mAnswerShown ? View.VISIBLE : View.GONE);
+    }
+}
@@ -17,15 +17,13 @@
 package com.akhbulatov.wordkeeper.ui.dialog;
 
 import android.app.Dialog;
-import android.database.Cursor;
 import android.os.Bundle;
+import android.widget.ArrayAdapter;
 
 import com.akhbulatov.wordkeeper.R;
-import com.akhbulatov.wordkeeper.database.CategoryDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.CategoryCatalog;
 import com.akhbulatov.wordkeeper.model.Category;
 
-import java.util.List;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
@@ -36,7 +34,7 @@ import androidx.appcompat.app.AlertDialog;
  */
 public class CategoryListDialog extends BaseDialogFragment {
 
-    private String[] mCategories;
+    private ArrayAdapter<Category> mCategoryAdapter;
     private CategoryListDialogListener mListener;
 
     @Override
@@ -49,19 +47,10 @@ public class CategoryListDialog extends BaseDialogFragment {
                     + CategoryListDialogListener.class.getName());
         }
 
-        // Gets category list from the database
-        CategoryDatabaseAdapter categoryDbAdapter = new CategoryDatabaseAdapter(getActivity());
-        categoryDbAdapter.open();
-
-        Cursor cursor = categoryDbAdapter.getAll();
-        List<Category> categoryList = Category.getCategories(cursor);
-        mCategories = new String[categoryList.size()];
-        for (int i = 0; i < categoryList.size(); i++) {
-            mCategories[i] = categoryList.get(i).getName();
-        }
-
-        cursor.close();
-        categoryDbAdapter.close();
+        // Gets category list from the memory, the list is filled after the categories are loaded
+        mCategoryAdapter = new ArrayAdapter<>(requireContext(), android.R.layout.select_dialog_item);
+        CategoryCatalog.getInstance(requireContext()).getSnapshot(snapshot ->
+                mCategoryAdapter.addAll(snapshot.getCategories()));
     }
 
     @NonNull
@@ -70,8 +59,8 @@ public class CategoryListDialog extends BaseDialogFragment {
         AlertDialog.Builder builder = new AlertDialog.Builder(requireActivity());
 
         return builder.setTitle(R.string.category_list_title)
-                .setItems(mCategories, (dialog, which) -> {
-                    mListener.onFinishCategoryListDialog(mCategories[which]);
+                .setAdapter(mCategoryAdapter, (dialog, which) -> {
+                    mListener.onFinishCategoryListDialog(mCategoryAdapter.getItem(which).getId());
                     dialog.dismiss();
                 })
                 .setNegativeButton(android.R.string.cancel, (dialog, which) -> dialog.dismiss())
@@ -79,6 +68,6 @@ public class CategoryListDialog extends BaseDialogFragment {
     }
 
     public interface CategoryListDialogListener {
-        void onFinishCategoryListDialog(String category);
+        void onFinishCategoryListDialog(long categoryId);
     }
 }
@@ -37,13 +37,12 @@ import android.widget.TextView;
 
 import com.akhbulatov.wordkeeper.R;
 import com.akhbulatov.wordkeeper.adapter.CategoryAdapter;
-import com.akhbulatov.wordkeeper.adapter.WordAdapter;
+import com.akhbulatov.wordkeeper.database.CategoryCatalog;
 import com.akhbulatov.wordkeeper.database.CategoryDatabaseAdapter;
 import com.akhbulatov.wordkeeper.database.DatabaseContract.CategoryEntry;
-import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
-import com.akhbulatov.wordkeeper.database.WordDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.QueryResult;
 import com.akhbulatov.wordkeeper.model.Category;
-import com.akhbulatov.wordkeeper.model.Word;
+import com.akhbulatov.wordkeeper.repository.CategoryRepository;
 import com.akhbulatov.wordkeeper.ui.activity.CategoryContentActivity;
 import com.akhbulatov.wordkeeper.ui.activity.MainActivity;
 import com.akhbulatov.wordkeeper.ui.dialog.CategoryDeleteDialog;
@@ -51,6 +50,7 @@ import com.akhbulatov.wordkeeper.ui.dialog.CategoryEditorDialog;
 import com.akhbulatov.wordkeeper.ui.listener.FabAddWordListener;
 import com.akhbulatov.wordkeeper.ui.widget.ContextMenuRecyclerView;
 import com.akhbulatov.wordkeeper.util.CommonUtils;
+import com.akhbulatov.wordkeeper.util.CursorFilter;
 import com.akhbulatov.wordkeeper.util.FilterCursorWrapper;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
@@ -58,24 +58,17 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.widget.SearchView;
 import androidx.fragment.app.DialogFragment;
-import androidx.loader.app.LoaderManager;
-import androidx.loader.content.CursorLoader;
-import androidx.loader.content.Loader;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 /**
  * Shows a list of categories from the database.
- * Loader uses a custom class for working with the database,
- * NOT the ContentProvider (temporary solution)
+ * The categories are observed by the query of the database, which loads them again when they are changed
  */
-public class CategoryListFragment extends BaseFragment implements LoaderManager.LoaderCallbacks<Cursor>,
-        CategoryAdapter.CategoryItemClickListener,
+public class CategoryListFragment extends BaseFragment implements CategoryAdapter.CategoryItemClickListener,
         CategoryEditorDialog.CategoryEditorDialogListener,
         CategoryDeleteDialog.CategoryDeleteListener {
 
-    private static final int LOADER_ID = 1;
-
     private static final int CATEGORY_EDITOR_DIALOG_REQUEST = 1;
     private static final int CATEGORY_DELETE_DIALOG_REQUEST = 2;
 
@@ -85,11 +78,18 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
     private ContextMenuRecyclerView mCategoryList;
     private TextView mTextNoResultsCategory;
 
-    private LoaderManager loaderManager;
-
     private CategoryAdapter mCategoryAdapter;
     private CategoryDatabaseAdapter mCategoryDbAdapter;
-    private WordDatabaseAdapter mWordDbAdapter;
+    private CategoryRepository mCategoryRepository;
+
+    // The categories loaded last, held until the next ones are loaded. The search filters them
+    // instead of querying the database again, so the found rows are always the rows of the shown cursor
+    private QueryResult mCategories;
+    // Keeps the results of the recent searches in the loaded categories.
+    // Is created for the loaded cursor and dropped when the next cursor is loaded
+    private CursorFilter mCategoryFilter;
+    // The text of the search shown in the list
+    private String mQuery = "";
 
     private FabAddWordListener mListener;
 
@@ -110,13 +110,8 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         super.onCreate(savedInstanceState);
         setHasOptionsMenu(true);
 
-        loaderManager = getLoaderManager();
-
         mCategoryDbAdapter = new CategoryDatabaseAdapter(getActivity());
-        mCategoryDbAdapter.open();
-
-        mWordDbAdapter = new WordDatabaseAdapter(getActivity());
-        mWordDbAdapter.open();
+        mCategoryRepository = new CategoryRepository(getActivity());
     }
 
     @Override
@@ -147,14 +142,17 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
     @Override
     public void onActivityCreated(Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
-        loaderManager.initLoader(LOADER_ID, null, this);
+        mCategoryDbAdapter.observeAllWithCounts().observe(this, this::showCategories);
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
-        mCategoryDbAdapter.close();
-        mWordDbAdapter.close();
+        // The observers are removed at this point, so the categories are no longer delivered
+        if (mCategories != null) {
+            mCategories.release();
+            mCategories = null;
+        }
     }
 
     @Override
@@ -179,26 +177,7 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextChange(String newText) {
-                final Cursor cursor = mCategoryDbAdapter.getAll();
-                final int column = cursor.getColumnIndex(CategoryEntry.COLUMN_NAME);
-                if (newText.length() > 0) {
-                    mCategoryAdapter.swapCursor(new FilterCursorWrapper(cursor, newText, column));
-
-                    if (mCategoryAdapter.getItemCount() == 0) {
-                        String escapedNewText = TextUtils.htmlEncode(newText);
-                        String formattedNoResults = String.format(
-                                getString(R.string.no_results_category), escapedNewText);
-                        CharSequence styledNoResults = Html.fromHtml(formattedNoResults);
-
-                        mTextNoResultsCategory.setText(styledNoResults);
-                        mTextNoResultsCategory.setVisibility(View.VISIBLE);
-                    } else {
-                        mTextNoResultsCategory.setVisibility(View.GONE);
-                    }
-                } else {
-                    mCategoryAdapter.swapCursor(cursor);
-                    mTextNoResultsCategory.setVisibility(View.GONE);
-                }
+                filterCategories(newText);
                 return true;
             }
 
@@ -244,37 +223,9 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         }
     }
 
-    @NonNull
-    @Override
-    public Loader<Cursor> onCreateLoader(int id, Bundle args) {
-        // Returns the cursor with all records from the database.
-        // Uses own class instead of a ContentProvider
-        return new SimpleCursorLoader(getActivity(), mCategoryDbAdapter);
-    }
-
-    @Override
-    public void onLoadFinished(@NonNull Loader<Cursor> loader, Cursor data) {
-        if (mCategoryAdapter == null) {
-            // The adapter is created only the first time retrieving data from the database
-            mCategoryAdapter = new CategoryAdapter(data, mWordDbAdapter);
-            mCategoryAdapter.setHasStableIds(true);
-            mCategoryAdapter.setOnItemClickListener(this);
-            mCategoryList.setAdapter(mCategoryAdapter);
-        } else {
-            mCategoryAdapter.swapCursor(data);
-        }
-    }
-
-    @Override
-    public void onLoaderReset(@NonNull Loader<Cursor> loader) {
-        if (mCategoryAdapter != null) {
-            mCategoryAdapter.swapCursor(null);
-        }
-    }
-
     @Override
-    public void onCategoryItemClick(String categoryName) {
-        startActivity(CategoryContentActivity.newIntent(getActivity(), categoryName));
+    public void onCategoryItemClick(long categoryId, String categoryName) {
+        startActivity(CategoryContentActivity.newIntent(getActivity(), categoryId, categoryName));
     }
 
     // Passes the ID of the text on the positive button
@@ -301,8 +252,71 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         deleteCategory();
     }
 
-    public void updateCategoryList() {
-        loaderManager.restartLoader(LOADER_ID, null, this);
+    /**
+     * Shows the loaded categories containing the text. The categories are already in memory
+     * and there are few of them, so they are filtered on the main thread,
+     * where the list reads the same cursor
+     */
+    private void filterCategories(String query) {
+        mQuery = query;
+        if (mCategories == null) {
+            // The categories are filtered when they are loaded
+            return;
+        }
+
+        Cursor categoriesCursor = mCategories.getCursor();
+        Cursor cursor = categoriesCursor;
+        if (query.length() > 0) {
+            if (mCategoryFilter == null) {
+                mCategoryFilter = new CursorFilter(categoriesCursor,
+                        categoriesCursor.getColumnIndexOrThrow(CategoryEntry.COLUMN_NAME));
+            }
+            cursor = new FilterCursorWrapper(categoriesCursor, mCategoryFilter.filter(query));
+        }
+        // The wrappers of the search read the loaded categories, which are released when the next ones are shown
+        mCategoryAdapter.swapCursor(cursor);
+
+        if (query.length() > 0 && mCategoryAdapter.getItemCount() == 0) {
+            String escapedQuery = TextUtils.htmlEncode(query);
+            String formattedNoResults = String.format(
+                    getString(R.string.no_results_category), escapedQuery);
+            CharSequence styledNoResults = Html.fromHtml(formattedNoResults);
+
+            mTextNoResultsCategory.setText(styledNoResults);
+            mTextNoResultsCategory.setVisibility(View.VISIBLE);
+        } else {
+            mTextNoResultsCategory.setVisibility(View.GONE);
+        }
+    }
+
+    private void showCategories(@Nullable QueryResult result) {
+        if (result == null) {
+            return;
+        }
+        // Holds the new categories before the previous ones are released, they can be the same
+        result.acquire();
+        QueryResult oldCategories = mCategories;
+        mCategories = result;
+        // The positions found by the previous filter are the positions in the previous cursor
+        mCategoryFilter = null;
+
+        if (mCategoryAdapter == null) {
+            // The adapter is created only the first time retrieving data from the database
+            mCategoryAdapter = new CategoryAdapter(null);
+            mCategoryAdapter.setHasStableIds(true);
+            mCategoryAdapter.setOnItemClickListener(this);
+            mCategoryList.setAdapter(mCategoryAdapter);
+        }
+        if (mQuery.length() > 0) {
+            // Shows the results of the same search in the new categories
+            filterCategories(mQuery);
+        } else {
+            // Keeps the snapshot of the data even for the first time to compare the next data with it
+            mCategoryAdapter.swapCursor(result.getCursor(), result.getDiff());
+        }
+        if (oldCategories != null) {
+            oldCategories.release();
+        }
     }
 
     private void addCategory(DialogFragment dialog) {
@@ -314,9 +328,7 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         if (TextUtils.isEmpty(name)) {
             CommonUtils.showToast(getActivity(), R.string.error_category_editor_empty_field);
         } else {
-            mCategoryDbAdapter.insert(new Category(name));
-            mCategoryList.scrollToPosition(0);
-            loaderManager.restartLoader(LOADER_ID, null, this);
+            mCategoryRepository.insert(new Category(name), id -> mCategoryList.scrollToPosition(0));
         }
     }
 
@@ -324,41 +336,14 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         if (TextUtils.isEmpty(name)) {
             CommonUtils.showToast(getActivity(), R.string.error_category_editor_empty_field);
         } else {
-            // First updates all words from the category with the new category name
-            Cursor cursor = mWordDbAdapter.getRecordsByCategory(getName());
-            while (!cursor.isAfterLast()) {
-                long id = cursor.getLong(cursor.getColumnIndex(WordEntry._ID));
-                String wordName =
-                        cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_NAME));
-                String wordTranslation =
-                        cursor.getString(cursor.getColumnIndex(WordEntry.COLUMN_TRANSLATION));
-
-                mWordDbAdapter.update(new Word(id, wordName, wordTranslation, name));
-                cursor.moveToNext();
-            }
-
-            mCategoryDbAdapter.update(new Category(mSelectedItemId, name));
-            loaderManager.restartLoader(LOADER_ID, null, this);
+            // The words refer to the category by ID, so only the category is updated
+            mCategoryRepository.update(new Category(mSelectedItemId, name), null);
         }
     }
 
     private void deleteCategory() {
-        // First, deletes all words that are in the deleted category
-        Cursor cursor = mWordDbAdapter.getRecordsByCategory(getName());
-        WordAdapter wordAdapter = new WordAdapter(cursor);
-        while (!cursor.isAfterLast()) {
-            long id = wordAdapter.getItemId(cursor.getPosition());
-            mWordDbAdapter.delete(new Word(id));
-            cursor.moveToNext();
-        }
-
-        mCategoryDbAdapter.delete(new Category(mSelectedItemId));
-        loaderManager.restartLoader(LOADER_ID, null, this);
-    }
-
-    @Nullable
-    private String getName() {
-        return mCategoryDbAdapter.get(mSelectedItemId).getName();
+        // The words of the category are deleted by the database along with the category
+        mCategoryRepository.delete(new Category(mSelectedItemId), null);
     }
 
     private void showCategoryEditorDialog(int titleId, int positiveTextId) {
@@ -374,7 +359,9 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
 
             Dialog dialogView = dialog.getDialog();
             EditText editName = dialogView.findViewById(R.id.edit_category_name);
-            editName.setText(getName());
+            long categoryId = mSelectedItemId;
+            CategoryCatalog.getInstance(requireContext()).getSnapshot(snapshot ->
+                    editName.setText(snapshot.getName(categoryId)));
         }
     }
 
@@ -384,21 +371,4 @@ public class CategoryListFragment extends BaseFragment implements LoaderManager.
         dialog.show(requireActivity().getSupportFragmentManager(), null);
     }
 
-    /**
-     * Used to work with a Loader instead of a ContentProvider
-     */
-    private static class SimpleCursorLoader extends CursorLoader {
-
-        private CategoryDatabaseAdapter mCategoryDbAdapter;
-
-        SimpleCursorLoader(Context context, CategoryDatabaseAdapter categoryDbAdapter) {
-            super(context);
-            mCategoryDbAdapter = categoryDbAdapter;
-        }
-
-        @Override
-        public Cursor loadInBackground() {
-            return mCategoryDbAdapter.getAll();
-        }
-    }
 }
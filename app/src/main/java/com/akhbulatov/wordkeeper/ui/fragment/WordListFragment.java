@@ -21,6 +21,7 @@ import android.app.SearchManager;
 import android.content.ComponentName;
 import android.content.Context;
 import android.database.Cursor;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.text.Html;
 import android.text.TextUtils;
@@ -37,62 +38,77 @@ import android.widget.TextView;
 
 import com.akhbulatov.wordkeeper.R;
 import com.akhbulatov.wordkeeper.adapter.WordAdapter;
-import com.akhbulatov.wordkeeper.database.CategoryDatabaseAdapter;
-import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+import com.akhbulatov.wordkeeper.database.CategoryCatalog;
+import com.akhbulatov.wordkeeper.database.DatabaseWriter.WriteCallback;
+import com.akhbulatov.wordkeeper.database.QueryResult;
 import com.akhbulatov.wordkeeper.database.WordDatabaseAdapter;
+import com.akhbulatov.wordkeeper.database.WordFuzzyIndex;
+import com.akhbulatov.wordkeeper.database.WordPagedCursor;
 import com.akhbulatov.wordkeeper.model.Category;
 import com.akhbulatov.wordkeeper.model.Word;
+import com.akhbulatov.wordkeeper.model.WordSelection;
+import com.akhbulatov.wordkeeper.repository.WordRepository;
 import com.akhbulatov.wordkeeper.ui.activity.MainActivity;
 import com.akhbulatov.wordkeeper.ui.dialog.CategoryListDialog;
 import com.akhbulatov.wordkeeper.ui.dialog.WordSortDialog;
 import com.akhbulatov.wordkeeper.ui.listener.FabAddWordListener;
 import com.akhbulatov.wordkeeper.util.CommonUtils;
-import com.akhbulatov.wordkeeper.util.FilterCursorWrapper;
+import com.akhbulatov.wordkeeper.util.SearchExecutor;
 import com.akhbulatov.wordkeeper.util.SharedPreferencesManager;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.List;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.view.ActionMode;
 import androidx.appcompat.widget.SearchView;
 import androidx.fragment.app.DialogFragment;
-import androidx.loader.app.LoaderManager;
-import androidx.loader.content.CursorLoader;
-import androidx.loader.content.Loader;
+import androidx.lifecycle.LiveData;
 import androidx.recyclerview.widget.DividerItemDecoration;
 import androidx.recyclerview.widget.RecyclerView;
 
 /**
  * Shows a list of words from the database.
- * Loader uses a custom class for working with the database,
- * NOT the ContentProvider (temporary solution)
+ * The words are observed by the query of the database, which loads them again when they are changed
  */
-public class WordListFragment extends BaseFragment implements LoaderManager.LoaderCallbacks<Cursor>,
-        WordAdapter.WordItemClickListener,
+public class WordListFragment extends BaseFragment implements WordAdapter.WordItemClickListener,
         WordSortDialog.WordSortDialogListener,
         CategoryListDialog.CategoryListDialogListener {
 
-    private static final int LOADER_ID = 1;
+    // The maximum number of words shown in the search results
+    private static final int SEARCH_LIMIT = 500;
 
     private static final int WORD_SORT_DIALOG_REQUEST = 1;
     private static final int CATEGORY_LIST_DIALOG_REQUEST = 2;
 
     private static int sSortMode;
+    // Whether the search also finds the words with typos
+    private volatile boolean mFuzzySearch;
 
     // Contains the ID of the current selected item (word)
     private long mSelectedItemId;
+    // The position of the word selected last, the range of words is selected from it
+    private int mLastSelectedPosition = RecyclerView.NO_POSITION;
 
     private RecyclerView mWordList;
     private TextView mTextEmptyWordList;
     private TextView mTextNoResultsWord;
 
-    private LoaderManager loaderManager;
-
     private WordAdapter mWordAdapter;
     private WordDatabaseAdapter mWordDbAdapter;
+    private WordRepository mWordRepository;
+    // The words in the current sort mode
+    private LiveData<QueryResult> mWords;
+    // The last loaded words, held until the next ones are shown
+    private QueryResult mWordsResult;
+
+    private SearchExecutor mSearchExecutor;
+    // The last result of the search shown in the list
+    private Cursor mSearchCursor;
+    // The query of the words shown in the list, the empty query for all words.
+    // Is null when the words with typos are shown, since no query of the database matches them
+    private String mShownQuery = "";
 
     private ActionModeCallback mActionModeCallback;
     private ActionMode mActionMode;
@@ -116,14 +132,17 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
         super.onCreate(savedInstanceState);
         setHasOptionsMenu(true);
 
-        loaderManager = getLoaderManager();
-
         mWordDbAdapter = new WordDatabaseAdapter(getActivity());
-        mWordDbAdapter.open();
+        mWordRepository = new WordRepository(getActivity());
 
         sSortMode = SharedPreferencesManager.getSortMode(getActivity());
+        mFuzzySearch = SharedPreferencesManager.isFuzzySearch(getActivity());
+        if (mFuzzySearch) {
+            buildFuzzyIndex();
+        }
 
         mActionModeCallback = new ActionModeCallback();
+        mSearchExecutor = new SearchExecutor();
     }
 
     @Override
@@ -156,13 +175,22 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
     @Override
     public void onActivityCreated(Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
-        loaderManager.initLoader(LOADER_ID, null, this);
+        observeWords();
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
-        mWordDbAdapter.close();
+        mSearchExecutor.shutdown();
+        // The observers are removed at this point, so the words are no longer delivered
+        if (mWordsResult != null) {
+            mWordsResult.release();
+            mWordsResult = null;
+        }
+        if (mSearchCursor != null) {
+            mSearchCursor.close();
+            mSearchCursor = null;
+        }
     }
 
     @Override
@@ -174,6 +202,7 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
     @Override
     public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
         inflater.inflate(R.menu.fragment_word, menu);
+        menu.findItem(R.id.menu_fuzzy_search_word).setChecked(mFuzzySearch);
 
         MenuItem searchItem = menu.findItem(R.id.menu_search_word);
         SearchView searchView = (SearchView) searchItem.getActionView();
@@ -192,31 +221,15 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                final Cursor cursor = mWordDbAdapter.getAll(sSortMode);
-                final int column = cursor.getColumnIndex(WordEntry.COLUMN_NAME);
-                if (newText.length() > 0) {
-                    mWordAdapter.swapCursor(new FilterCursorWrapper(cursor, newText, column));
-
-                    mTextEmptyWordList.setVisibility(View.GONE);
-                    if (mWordAdapter.getItemCount() == 0) {
-                        String escapedNewText = TextUtils.htmlEncode(newText);
-                        String formattedNoResults = String.format(
-                                getString(R.string.no_results_word), escapedNewText);
-                        CharSequence styledNoResults = Html.fromHtml(formattedNoResults);
-
-                        mTextNoResultsWord.setText(styledNoResults);
-                        mTextNoResultsWord.setVisibility(View.VISIBLE);
+                mSearchExecutor.search(newText, (query, cancellationSignal) -> {
+                    if (query.length() > 0 && mFuzzySearch) {
+                        return mWordDbAdapter.searchFuzzy(query, sSortMode, SEARCH_LIMIT, cancellationSignal);
+                    } else if (query.length() > 0) {
+                        return mWordDbAdapter.search(query, sSortMode, SEARCH_LIMIT, cancellationSignal);
                     } else {
-                        mTextNoResultsWord.setVisibility(View.GONE);
-                    }
-                } else {
-                    mWordAdapter.swapCursor(cursor);
-
-                    mTextNoResultsWord.setVisibility(View.GONE);
-                    if (mWordAdapter.getItemCount() == 0) {
-                        mTextEmptyWordList.setVisibility(View.VISIBLE);
+                        return new WordPagedCursor(mWordDbAdapter, sSortMode, cancellationSignal);
                     }
-                }
+                }, WordListFragment.this::showSearchResults);
                 return true;
             }
         });
@@ -228,45 +241,19 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
             case R.id.menu_sort_word:
                 showWordSortDialog();
                 return true;
+            case R.id.menu_fuzzy_search_word:
+                mFuzzySearch = !item.isChecked();
+                item.setChecked(mFuzzySearch);
+                SharedPreferencesManager.setFuzzySearch(getActivity(), mFuzzySearch);
+                if (mFuzzySearch) {
+                    buildFuzzyIndex();
+                }
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
     }
 
-    @NonNull
-    @Override
-    public Loader<Cursor> onCreateLoader(int id, Bundle args) {
-        // Returns the cursor with all records from the database.
-        // Uses own class instead of a ContentProvider
-        return new SimpleCursorLoader(getActivity(), mWordDbAdapter);
-    }
-
-    @Override
-    public void onLoadFinished(@NonNull Loader<Cursor> loader, Cursor data) {
-        if (mWordAdapter == null) {
-            // The adapter is created only the first time retrieving data from the database
-            mWordAdapter = new WordAdapter(data);
-            mWordAdapter.setHasStableIds(true);
-            mWordAdapter.setOnItemClickListener(this);
-            mWordList.setAdapter(mWordAdapter);
-        } else {
-            mWordAdapter.swapCursor(data);
-        }
-
-        if (mWordAdapter.getItemCount() == 0) {
-            mTextEmptyWordList.setVisibility(View.VISIBLE);
-        } else {
-            mTextEmptyWordList.setVisibility(View.GONE);
-        }
-    }
-
-    @Override
-    public void onLoaderReset(@NonNull Loader<Cursor> loader) {
-        if (mWordAdapter != null) {
-            mWordAdapter.swapCursor(null);
-        }
-    }
-
     @Override
     public void onWordItemClick(int position) {
         if (mActionMode != null) {
@@ -274,42 +261,44 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
         }
     }
 
+    // Starts the selection, or selects the range of words from the word selected last
     @Override
     public boolean onWordItemLongClick(int position) {
         if (mActionMode == null) {
             mActionMode = ((AppCompatActivity) requireActivity()).startSupportActionMode(mActionModeCallback);
+            toggleSelection(position);
+        } else if (mLastSelectedPosition != RecyclerView.NO_POSITION) {
+            mWordAdapter.selectRange(mLastSelectedPosition, position);
+            mLastSelectedPosition = position;
+            updateActionMode();
+        } else {
+            toggleSelection(position);
         }
-        toggleSelection(position);
         return true;
     }
 
     @Override
     public void onFinishWordSortDialog(int sortMode) {
-        // Saves to pass to the inner class SimpleCursorLoader
         sSortMode = sortMode;
-        loaderManager.restartLoader(LOADER_ID, null, this);
+        observeWords();
     }
 
     // Updates the word list with the new sort mode
     @Override
-    public void onFinishCategoryListDialog(String category) {
-        Word word = null;
-        for (Integer i : mWordAdapter.getSelectedWords()) {
-            word = mWordDbAdapter.get(mWordAdapter.getItemId(i));
-            mWordDbAdapter.update(new Word(
-                    word.getId(),
-                    word.getName(),
-                    word.getTranslation(),
-                    category));
-        }
+    public void onFinishCategoryListDialog(long categoryId) {
+        mWordRepository.moveToCategory(mWordAdapter.getSelection(), categoryId, new WriteCallback<Integer>() {
+            @Override
+            public void onWriteFinished(Integer count) {
+                showResult(count > 0 ? R.string.success_move_word : R.string.error_move_word);
+            }
 
-        mActionMode.finish();
+            @Override
+            public void onWriteFailed(RuntimeException error) {
+                showResult(R.string.error_move_word);
+            }
+        });
 
-        if (word != null) {
-            CommonUtils.showToast(getActivity(), R.string.success_move_word);
-        } else {
-            CommonUtils.showToast(getActivity(), R.string.error_move_word);
-        }
+        mActionMode.finish();
     }
 
     /**
@@ -326,28 +315,34 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
 
         String name = editName.getText().toString();
         String translation = editTranslation.getText().toString();
-        String category = spinnerCategory.getSelectedItem().toString();
+        Category category = (Category) spinnerCategory.getSelectedItem();
 
         if ((TextUtils.isEmpty(name) & TextUtils.isEmpty(translation))
                 | (TextUtils.isEmpty(name) | TextUtils.isEmpty(translation))) {
             CommonUtils.showToast(getActivity(), R.string.error_word_editor_empty_fields);
         } else {
-            mWordDbAdapter.insert(new Word(name, translation, category));
-            // Checked for null in case this method is called from the screen "Categories"
-            if (mWordList != null) {
-                mWordList.scrollToPosition(0);
-            }
-            loaderManager.restartLoader(LOADER_ID, null, this);
+            mWordRepository.insert(new Word(name, translation, category.getId()), id -> {
+                // Checked for null in case this method is called from the screen "Categories"
+                if (mWordList != null) {
+                    mWordList.scrollToPosition(0);
+                }
+            });
         }
     }
 
-    public void editWord(String name, String translation, String category) {
+    public void editWord(String name, String translation, long categoryId) {
         if ((TextUtils.isEmpty(name) & TextUtils.isEmpty(translation))
                 | (TextUtils.isEmpty(name) | TextUtils.isEmpty(translation))) {
             CommonUtils.showToast(getActivity(), R.string.error_word_editor_empty_fields);
         } else {
-            mWordDbAdapter.update(new Word(mSelectedItemId, name, translation, category));
-            loaderManager.restartLoader(LOADER_ID, null, this);
+            mWordRepository.update(new Word(mSelectedItemId, name, translation, categoryId), null);
+        }
+    }
+
+    // The result of a write is received after the fragment could be detached
+    private void showResult(@StringRes int resId) {
+        if (isAdded()) {
+            CommonUtils.showToast(getActivity(), resId);
         }
     }
 
@@ -359,58 +354,144 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
         return mWordDbAdapter.get(mSelectedItemId).getTranslation();
     }
 
-    public String getCategory() {
-        return mWordDbAdapter.get(mSelectedItemId).getCategory();
+    public long getCategoryId() {
+        return mWordDbAdapter.get(mSelectedItemId).getCategoryId();
     }
 
-    public String[] getCategories() {
-        CategoryDatabaseAdapter categoryDbAdapter = new CategoryDatabaseAdapter(getActivity());
-        categoryDbAdapter.open();
+    /**
+     * Passes the categories to the listener, see {@link CategoryCatalog#getSnapshot(CategoryCatalog.SnapshotListener)}
+     */
+    public void getCategories(CategoryCatalog.SnapshotListener listener) {
+        CategoryCatalog.getInstance(requireContext()).getSnapshot(listener);
+    }
 
-        Cursor cursor = categoryDbAdapter.getAll();
-        List<Category> categoryList = Category.getCategories(cursor);
-        String[] categories = new String[categoryList.size()];
-        for (int i = 0; i < categoryList.size(); i++) {
-            categories[i] = categoryList.get(i).getName();
+    // Observes the words in the current sort mode instead of the previous one
+    private void observeWords() {
+        if (mWords != null) {
+            mWords.removeObservers(this);
         }
-
-        cursor.close();
-        categoryDbAdapter.close();
-        return categories;
+        mWords = mWordDbAdapter.observeAll(sSortMode);
+        mWords.observe(this, this::showWords);
     }
 
-    private void toggleSelection(int position) {
-        mWordAdapter.toggleSelection(position);
-        int count = mWordAdapter.getSelectedWordCount();
+    private void showWords(@Nullable QueryResult result) {
+        if (result == null) {
+            return;
+        }
+        if (mWordAdapter == null) {
+            // The adapter is created only the first time retrieving data from the database
+            mWordAdapter = new WordAdapter(null);
+            mWordAdapter.setHasStableIds(true);
+            mWordAdapter.setOnItemClickListener(this);
+            mWordList.setAdapter(mWordAdapter);
+        }
+        // Holds the new words before the previous ones are released, they can be the same
+        result.acquire();
+        // Keeps the snapshot of the data even for the first time to compare the next data with it
+        Cursor oldCursor = mWordAdapter.swapCursor(result.getCursor(), result.getDiff());
+        if (oldCursor != null && oldCursor == mSearchCursor) {
+            oldCursor.close();
+            mSearchCursor = null;
+        }
+        if (mWordsResult != null) {
+            mWordsResult.release();
+        }
+        mWordsResult = result;
+        mShownQuery = "";
 
-        if (count == 0) {
-            mActionMode.finish();
+        if (mWordAdapter.getItemCount() == 0) {
+            mTextEmptyWordList.setVisibility(View.VISIBLE);
         } else {
-            mActionMode.setTitle(String.valueOf(count));
-            mActionMode.invalidate();
+            mTextEmptyWordList.setVisibility(View.GONE);
         }
     }
 
-    private void deleteWords(List<Integer> words) {
-        for (Integer i : words) {
-            mWordDbAdapter.delete(new Word(mWordAdapter.getItemId(i)));
+    private void showSearchResults(String query, Cursor cursor) {
+        Cursor oldCursor = mWordAdapter.swapCursor(cursor);
+        // Closes the previous result of the search, the loaded words are held until the next ones are shown
+        if (oldCursor != null && oldCursor == mSearchCursor) {
+            oldCursor.close();
+        }
+        mSearchCursor = cursor;
+        mShownQuery = query.length() > 0 && mFuzzySearch ? null : query;
+
+        if (query.length() > 0) {
+            mTextEmptyWordList.setVisibility(View.GONE);
+            if (mWordAdapter.getItemCount() == 0) {
+                String escapedQuery = TextUtils.htmlEncode(query);
+                String formattedNoResults = String.format(
+                        getString(R.string.no_results_word), escapedQuery);
+                CharSequence styledNoResults = Html.fromHtml(formattedNoResults);
+
+                mTextNoResultsWord.setText(styledNoResults);
+                mTextNoResultsWord.setVisibility(View.VISIBLE);
+            } else {
+                mTextNoResultsWord.setVisibility(View.GONE);
+            }
+        } else {
+            mTextNoResultsWord.setVisibility(View.GONE);
+            if (mWordAdapter.getItemCount() == 0) {
+                mTextEmptyWordList.setVisibility(View.VISIBLE);
+            }
         }
-        loaderManager.restartLoader(LOADER_ID, null, this);
+    }
+
+    // Builds the index of the typos in advance, so the first search does not wait for it
+    private void buildFuzzyIndex() {
+        WordDatabaseAdapter wordDbAdapter = mWordDbAdapter;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> WordFuzzyIndex.getInstance().build(wordDbAdapter));
+    }
+
+    private void toggleSelection(int position) {
+        mWordAdapter.toggleSelection(position);
+        mLastSelectedPosition = position;
+        updateActionMode();
     }
 
     /**
-     * Gets the single item (word) ID from the list of words,
-     * despite the collection that is passed in the parameter
-     *
-     * @param words The list of selected words
-     * @return Returns the item (word) ID
+     * Selects all words matching the shown query. Only the query is kept,
+     * so the words are not read even if there are many of them
      */
-    private long getWordItemId(List<Integer> words) {
-        long id = 0;
-        for (Integer i : words) {
-            id = mWordAdapter.getItemId(i);
+    private void selectAllWords() {
+        String query = mShownQuery;
+        int count = mWordAdapter.getItemCount();
+        if (query == null) {
+            // The words with typos are selected one by one, there are no more of them than shown
+            mWordAdapter.selectRange(0, count - 1);
+        } else {
+            mWordAdapter.selectAll(query, count);
+            if (count >= SEARCH_LIMIT && query.length() > 0) {
+                // The search shows only a part of the found words, so all of them are counted
+                countMatchingWords(query);
+            }
+        }
+        mLastSelectedPosition = RecyclerView.NO_POSITION;
+        updateActionMode();
+    }
+
+    private void countMatchingWords(String query) {
+        WordDatabaseAdapter wordDbAdapter = mWordDbAdapter;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(() -> {
+            int count = wordDbAdapter.getMatchingCount(query);
+            mWordList.post(() -> {
+                WordSelection selection = mWordAdapter.getSelection();
+                if (mActionMode != null && selection.isAllMatching() && query.equals(selection.getQuery())) {
+                    selection.setMatchingCount(count);
+                    updateActionMode();
+                }
+            });
+        });
+    }
+
+    private void updateActionMode() {
+        int count = mWordAdapter.getSelectedWordCount();
+
+        if (count == 0) {
+            mActionMode.finish();
+        } else {
+            mActionMode.setTitle(String.valueOf(count));
+            mActionMode.invalidate();
         }
-        return id;
     }
 
     private void showWordSortDialog() {
@@ -425,24 +506,6 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
         dialog.show(requireActivity().getSupportFragmentManager(), null);
     }
 
-    /**
-     * Used to work with a Loader instead of a ContentProvider
-     */
-    private static class SimpleCursorLoader extends CursorLoader {
-
-        private WordDatabaseAdapter mWordDbAdapter;
-
-        SimpleCursorLoader(Context context, WordDatabaseAdapter wordDbAdapter) {
-            super(context);
-            mWordDbAdapter = wordDbAdapter;
-        }
-
-        @Override
-        public Cursor loadInBackground() {
-            return mWordDbAdapter.getAll(sSortMode);
-        }
-    }
-
     /**
      * Provides support for CAB
      */
@@ -460,7 +523,8 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
         @Override
         public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
             // Editing is available only for one selected word
-            if (mWordAdapter.getSelectedWordCount() == 1) {
+            WordSelection selection = mWordAdapter.getSelection();
+            if (selection.getCount() == 1 && !selection.isAllMatching()) {
                 mItemEditWord.setVisible(true);
             } else {
                 mItemEditWord.setVisible(false);
@@ -478,7 +542,7 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
                     // Saves the id to use to retrieve the selected row
                     // and paste the edited string into the database.
                     // Called for only one selected word
-                    mSelectedItemId = getWordItemId(mWordAdapter.getSelectedWords());
+                    mSelectedItemId = mWordAdapter.getSelection().getIds()[0];
 
                     mListener.onFabAddWordClick(R.string.title_edit_word,
                             R.string.word_editor_action_edit,
@@ -486,9 +550,21 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
                     mode.finish();
                     return true;
                 case R.id.menu_delete_word:
-                    deleteWords(mWordAdapter.getSelectedWords());
+                    mWordRepository.delete(mWordAdapter.getSelection(), new WriteCallback<Integer>() {
+                        @Override
+                        public void onWriteFinished(Integer count) {
+                        }
+
+                        @Override
+                        public void onWriteFailed(RuntimeException error) {
+                            showResult(R.string.error_delete_word);
+                        }
+                    });
                     mode.finish();
                     return true;
+                case R.id.menu_select_all_word:
+                    selectAllWords();
+                    return true;
                 default:
                     return false;
             }
@@ -497,6 +573,7 @@ public class WordListFragment extends BaseFragment implements LoaderManager.Load
         @Override
         public void onDestroyActionMode(ActionMode mode) {
             mWordAdapter.clearSelection();
+            mLastSelectedPosition = RecyclerView.NO_POSITION;
             mActionMode = null;
         }
     }
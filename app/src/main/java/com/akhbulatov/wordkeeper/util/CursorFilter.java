@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import android.database.Cursor;
+import android.util.LruCache;
+
+/**
+ * Finds the rows of a cursor whose column contains the filter text.
+ * The values and the text are compared without accents and case.
+ * Reads the values of the column once. When the new text contains the previous one,
+ * only the rows found by the previous text are checked again.
+ * The results of the recent texts are kept, so deleting the entered characters
+ * returns the previous results without checking the rows.
+ * Not thread-safe, is used by one thread at a time
+ */
+public class CursorFilter {
+
+    // The number of the recent texts whose results are kept
+    private static final int CACHE_SIZE = 16;
+
+    private final String[] mValues;
+    private final LruCache<String, int[]> mResults = new LruCache<>(CACHE_SIZE);
+
+    private String mLastFilter;
+    private int[] mLastPositions;
+
+    /**
+     * @param cursor The cursor with the rows to filter.
+     *               The rows must be the same in the cursors passed to {@link FilterCursorWrapper}
+     * @param column The column compared with the filter text
+     */
+    public CursorFilter(Cursor cursor, int column) {
+        mValues = new String[cursor.getCount()];
+        for (int i = 0; i < mValues.length && cursor.moveToPosition(i); i++) {
+            String value = cursor.getString(column);
+            mValues[i] = TextNormalizer.normalize(value);
+        }
+    }
+
+    /**
+     * @return Returns the positions of the rows containing the text in the order of the cursor
+     */
+    public int[] filter(String text) {
+        String filter = TextNormalizer.normalize(text);
+
+        int[] positions = mResults.get(filter);
+        if (positions == null) {
+            if (mLastFilter != null && filter.contains(mLastFilter)) {
+                // The rows not matching the previous text cannot match the text that contains it
+                positions = filter(mLastPositions, mLastPositions.length, filter);
+            } else {
+                positions = filter(null, mValues.length, filter);
+            }
+            mResults.put(filter, positions);
+        }
+
+        mLastFilter = filter;
+        mLastPositions = positions;
+        return positions;
+    }
+
+    /**
+     * @param candidates The positions of the rows to check or null to check all rows
+     */
+    private int[] filter(int[] candidates, int count, String filter) {
+        int[] positions = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int position = candidates != null ? candidates[i] : i;
+            if (mValues[position].contains(filter)) {
+                positions[found++] = position;
+            }
+        }
+
+        int[] result = new int[found];
+        System.arraycopy(positions, 0, result, 0, found);
+        return result;
+    }
+}
@@ -29,28 +29,15 @@ public class FilterCursorWrapper extends CursorWrapper {
     private int mCount;
     private int mPos;
 
-    public FilterCursorWrapper(Cursor cursor, String filter, int column) {
+    /**
+     * @param cursor The cursor to filter
+     * @param index  The positions of the rows of the cursor to show, found by {@link CursorFilter}
+     */
+    public FilterCursorWrapper(Cursor cursor, int[] index) {
         super(cursor);
-        filter = filter.toLowerCase();
-        if (filter.length() != 0) {
-            mCount = super.getCount();
-            mIndex = new int[mCount];
-            for (int i = 0; i < mCount; i++) {
-                super.moveToPosition(i);
-                if (getString(column).toLowerCase().contains(filter)) {
-                    mIndex[mPos++] = i;
-                }
-            }
-            mCount = mPos;
-            mPos = 0;
-            super.moveToFirst();
-        } else {
-            mCount = super.getCount();
-            mIndex = new int[mCount];
-            for (int i = 0; i < mCount; i++) {
-                mIndex[i] = i;
-            }
-        }
+        mIndex = index;
+        mCount = index.length;
+        moveToFirst();
     }
 
     @Override
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import java.util.Arrays;
+
+/**
+ * The set of the IDs stored in one array without boxing.
+ * The IDs are placed by open addressing, so adding, removing and checking an ID
+ * takes constant time and no object is allocated for an ID
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    // Marks the empty slots, the IDs of the rows of the database are never negative
+    private static final long EMPTY = -1;
+
+    private long[] mSlots;
+    private int mSize;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        mSlots = newSlots(getCapacity(expectedSize));
+    }
+
+    /**
+     * @return Returns true if the ID has been added and was not in the set before
+     */
+    public boolean add(long id) {
+        checkId(id);
+        int index = findSlot(mSlots, id);
+        if (mSlots[index] == id) {
+            return false;
+        }
+        mSlots[index] = id;
+        mSize++;
+        // Keeps the set at most half full, so the search of a slot stays short
+        if (mSize * 2 > mSlots.length) {
+            resize(mSlots.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return Returns true if the ID has been removed
+     */
+    public boolean remove(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = findSlot(mSlots, id);
+        if (mSlots[index] != id) {
+            return false;
+        }
+        mSlots[index] = EMPTY;
+        mSize--;
+
+        // Moves the following IDs of the same run to the freed slot,
+        // so their search does not stop at the empty slot
+        int mask = mSlots.length - 1;
+        int next = (index + 1) & mask;
+        while (mSlots[next] != EMPTY) {
+            long moved = mSlots[next];
+            mSlots[next] = EMPTY;
+            mSlots[findSlot(mSlots, moved)] = moved;
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return id >= 0 && mSlots[findSlot(mSlots, id)] == id;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mSlots, EMPTY);
+            mSize = 0;
+        }
+    }
+
+    /**
+     * @return Returns the IDs of the set in no particular order
+     */
+    public long[] toArray() {
+        long[] ids = new long[mSize];
+        int i = 0;
+        for (long id : mSlots) {
+            if (id != EMPTY) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private void resize(int capacity) {
+        long[] slots = newSlots(capacity);
+        for (long id : mSlots) {
+            if (id != EMPTY) {
+                slots[findSlot(slots, id)] = id;
+            }
+        }
+        mSlots = slots;
+    }
+
+    // Returns the slot containing the ID or the empty slot where it should be placed
+    private static int findSlot(long[] slots, long id) {
+        int mask = slots.length - 1;
+        int index = hash(id) & mask;
+        while (slots[index] != EMPTY && slots[index] != id) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    // Mixes the bits of the ID, since the consecutive IDs would occupy the neighbouring slots
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int getCapacity(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long[] newSlots(int capacity) {
+        long[] slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("The ID cannot be negative: " + id);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the search queries in the background.
+ * Waits until the user stops typing before starting a query, cancels the query
+ * that is still running when a new text is entered and delivers only the result
+ * of the latest text to the main thread
+ */
+public class SearchExecutor {
+
+    private static final long DEBOUNCE_DELAY_MS = 300;
+
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private Runnable mPendingSearch;
+    private CancellationSignal mCancellationSignal;
+    // Increases with each search, so the results of the previous searches are discarded
+    private int mGeneration;
+
+    /**
+     * Schedules the search of the text. The empty text is searched immediately,
+     * since it only returns the full list
+     *
+     * @param query    The text entered by the user
+     * @param task     The query executed in the background
+     * @param callback Receives the result on the main thread
+     */
+    public void search(String query, SearchTask task, SearchCallback callback) {
+        cancel();
+
+        final int generation = mGeneration;
+        final CancellationSignal cancellationSignal = new CancellationSignal();
+        mCancellationSignal = cancellationSignal;
+
+        mPendingSearch = () -> mExecutor.execute(() -> {
+            Cursor cursor;
+            try {
+                cursor = task.search(query, cancellationSignal);
+                if (cursor != null) {
+                    // Fills the cursor here, so the main thread does not read the database
+                    cursor.getCount();
+                }
+            } catch (OperationCanceledException e) {
+                return;
+            }
+
+            mMainHandler.post(() -> {
+                if (generation != mGeneration) {
+                    if (cursor != null) {
+                        cursor.close();
+                    }
+                    return;
+                }
+                callback.onSearchFinished(query, cursor);
+            });
+        });
+        mMainHandler.postDelayed(mPendingSearch, query.isEmpty() ? 0 : DEBOUNCE_DELAY_MS);
+    }
+
+    /**
+     * Cancels the scheduled and the running search, its result will not be delivered
+     */
+    public void cancel() {
+        mGeneration++;
+        if (mPendingSearch != null) {
+            mMainHandler.removeCallbacks(mPendingSearch);
+            mPendingSearch = null;
+        }
+        if (mCancellationSignal != null) {
+            mCancellationSignal.cancel();
+            mCancellationSignal = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        mExecutor.shutdown();
+    }
+
+    public interface SearchTask {
+        /**
+         * Executes the query in the background
+         *
+         * @param cancellationSignal Is cancelled when a new text is entered
+         */
+        Cursor search(String query, CancellationSignal cancellationSignal);
+    }
+
+    public interface SearchCallback {
+        void onSearchFinished(String query, Cursor cursor);
+    }
+}
@@ -26,6 +26,11 @@ import android.content.SharedPreferences;
 public class SharedPreferencesManager {
     private static final String PREF_FILE_NAME = "wordkeeper.prefs";
     private static final String PREF_SORT_MODE = "PREF_SORT_MODE";
+    private static final String PREF_SORT_LOCALE = "PREF_SORT_LOCALE";
+    private static final String PREF_NAME_SORT_KEYS_STALE = "PREF_NAME_SORT_KEYS_STALE";
+    private static final String PREF_NORMALIZED_COLUMNS_STALE = "PREF_NORMALIZED_COLUMNS_STALE";
+    private static final String PREF_FUZZY_SEARCH = "PREF_FUZZY_SEARCH";
+    private static final String PREF_REVIEW_LOG_COMPACTED_DAY = "PREF_REVIEW_LOG_COMPACTED_DAY";
 
     public static int getSortMode(Context context) {
         return getSharedPreferencesFile(context).getInt(PREF_SORT_MODE, 1);  // 1 is sort mode by default
@@ -35,6 +40,61 @@ public class SharedPreferencesManager {
         getSharedPreferencesFile(context).edit().putInt(PREF_SORT_MODE, sortMode).apply();
     }
 
+    public static boolean isFuzzySearch(Context context) {
+        return getSharedPreferencesFile(context).getBoolean(PREF_FUZZY_SEARCH, false);
+    }
+
+    public static void setFuzzySearch(Context context, boolean fuzzySearch) {
+        getSharedPreferencesFile(context).edit().putBoolean(PREF_FUZZY_SEARCH, fuzzySearch).apply();
+    }
+
+    /**
+     * Returns the language the sort keys of the words were created for,
+     * or null if they have not been created yet
+     */
+    public static String getSortLocale(Context context) {
+        return getSharedPreferencesFile(context).getString(PREF_SORT_LOCALE, null);
+    }
+
+    public static void setSortLocale(Context context, String locale) {
+        getSharedPreferencesFile(context).edit().putString(PREF_SORT_LOCALE, locale).apply();
+    }
+
+    /**
+     * Returns true if the sort keys of the words have to be created again,
+     * e.g. after an upgrade of the database or a change of the language
+     */
+    public static boolean isNameSortKeysStale(Context context) {
+        return getSharedPreferencesFile(context).getBoolean(PREF_NAME_SORT_KEYS_STALE, false);
+    }
+
+    public static void setNameSortKeysStale(Context context, boolean stale) {
+        getSharedPreferencesFile(context).edit().putBoolean(PREF_NAME_SORT_KEYS_STALE, stale).apply();
+    }
+
+    /**
+     * Returns true if the normalized names and translations the search uses
+     * have to be created again after an upgrade of the database
+     */
+    public static boolean isNormalizedColumnsStale(Context context) {
+        return getSharedPreferencesFile(context).getBoolean(PREF_NORMALIZED_COLUMNS_STALE, false);
+    }
+
+    public static void setNormalizedColumnsStale(Context context, boolean stale) {
+        getSharedPreferencesFile(context).edit().putBoolean(PREF_NORMALIZED_COLUMNS_STALE, stale).apply();
+    }
+
+    /**
+     * Returns the day the review log was compacted on last time or 0 if it has never been compacted
+     */
+    public static long getReviewLogCompactedDay(Context context) {
+        return getSharedPreferencesFile(context).getLong(PREF_REVIEW_LOG_COMPACTED_DAY, 0);
+    }
+
+    public static void setReviewLogCompactedDay(Context context, long day) {
+        getSharedPreferencesFile(context).edit().putLong(PREF_REVIEW_LOG_COMPACTED_DAY, day).apply();
+    }
+
     private static SharedPreferences getSharedPreferencesFile(Context context) {
         return context.getSharedPreferences(PREF_FILE_NAME, Context.MODE_PRIVATE);
     }
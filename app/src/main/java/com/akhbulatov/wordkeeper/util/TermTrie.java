@@ -0,0 +1,299 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the terms within the Levenshtein distance of a text.
+ * The terms are kept sorted in one array of chars, so the terms sharing a prefix are adjacent
+ * and the array is walked as a trie: the row of the distance matrix of a prefix is computed once
+ * for all terms sharing it, and all of them are skipped at once when every value of the row
+ * exceeds the distance. Only the band of each row around the diagonal is computed,
+ * since the values outside it exceed the distance anyway.
+ * The added and removed terms are merged into the array by the next search,
+ * so the terms added one by one are sorted once.
+ * A term added with several IDs is kept once for each ID.
+ * Not thread-safe, is used by one thread at a time
+ */
+public class TermTrie {
+
+    // The chars of all terms in the sorted order
+    private char[] mChars = new char[0];
+    // The start of each term in the chars followed by the end of the last term
+    private int[] mStarts = new int[1];
+    private long[] mIds = new long[0];
+    // The length of the prefix shared by each term with the previous one
+    private int[] mSharedLengths = new int[0];
+    private boolean[] mRemoved = new boolean[0];
+    private int mSize;
+    private int mRemovedCount;
+    private int mMaxLength;
+
+    // The terms added since the last merge
+    private final List<AddedTerm> mAddedTerms = new ArrayList<>();
+
+    // The rows of the distance matrix by the length of the prefix, reused by all searches
+    private int[][] mRows = new int[1][1];
+
+    public void add(String term, long id) {
+        mAddedTerms.add(new AddedTerm(term, id));
+    }
+
+    public void remove(String term, long id) {
+        for (int i = mAddedTerms.size() - 1; i >= 0; i--) {
+            AddedTerm addedTerm = mAddedTerms.get(i);
+            if (addedTerm.mId == id && addedTerm.mTerm.equals(term)) {
+                mAddedTerms.remove(i);
+                return;
+            }
+        }
+        for (int i = findFirst(term); i < mSize && compare(i, term) == 0; i++) {
+            if (mIds[i] == id && !mRemoved[i]) {
+                mRemoved[i] = true;
+                mRemovedCount++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return Returns the matches within the distance, the closest ones first
+     */
+    public List<Match> search(String text, int maxDistance) {
+        merge();
+        List<Match> matches = new ArrayList<>();
+        int textLength = text.length();
+        if (mRows.length <= mMaxLength || mRows[0].length <= textLength) {
+            mRows = new int[mMaxLength + 1][textLength + 1];
+        }
+        for (int j = 0; j <= textLength; j++) {
+            mRows[0][j] = j;
+        }
+
+        // The rows are computed for the prefix of this length of the previous term
+        int computedLength = 0;
+        int i = 0;
+        while (i < mSize) {
+            int start = mStarts[i];
+            int length = mStarts[i + 1] - start;
+            int prunedLength = computeRows(text, maxDistance, start,
+                    Math.min(mSharedLengths[i], computedLength), length);
+            if (prunedLength != -1) {
+                // Skips the terms sharing the prefix, no term starting with it is close enough
+                computedLength = prunedLength - 1;
+                i++;
+                while (i < mSize && mSharedLengths[i] >= prunedLength) {
+                    i++;
+                }
+                continue;
+            }
+
+            computedLength = length;
+            int distance = Math.abs(length - textLength) <= maxDistance
+                    ? mRows[length][textLength]
+                    : maxDistance + 1;
+            if (distance <= maxDistance) {
+                matches.add(new Match(mIds[i], new String(mChars, start, length), distance));
+            }
+            i++;
+        }
+
+        Collections.sort(matches, (m1, m2) -> m1.mDistance != m2.mDistance
+                ? m1.mDistance - m2.mDistance
+                : m1.mTerm.compareTo(m2.mTerm));
+        return matches;
+    }
+
+    /**
+     * Computes the rows of the prefixes of the term longer than the prefix computed before.
+     * Within a row only the values at most the distance away from the diagonal are computed,
+     * the values next to them are set above the distance, so the next row reads no stale values
+     *
+     * @return Returns the length of the first prefix whose row exceeds the distance
+     * or -1 if the rows of the whole term are computed
+     */
+    private int computeRows(String text, int maxDistance, int start, int computedLength, int length) {
+        int textLength = text.length();
+        for (int p = computedLength + 1; p <= length; p++) {
+            int from = Math.max(1, p - maxDistance);
+            int to = Math.min(textLength, p + maxDistance);
+            int[] previousRow = mRows[p - 1];
+            int[] currentRow = mRows[p];
+            char c = mChars[start + p - 1];
+            int min = maxDistance + 1;
+            if (from == 1) {
+                currentRow[0] = p;
+                min = p;
+            } else if (from <= textLength) {
+                currentRow[from - 1] = maxDistance + 1;
+            }
+            if (to < textLength) {
+                currentRow[to + 1] = maxDistance + 1;
+            }
+            for (int j = from; j <= to; j++) {
+                int value = previousRow[j - 1] + (c == text.charAt(j - 1) ? 0 : 1);
+                value = Math.min(value, Math.min(currentRow[j - 1], previousRow[j]) + 1);
+                currentRow[j] = value;
+                min = Math.min(min, value);
+            }
+            if (min > maxDistance) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts the added terms and merges them with the kept ones into new arrays.
+     * Is called by the search, so it is called before only to sort the terms in advance
+     */
+    public void merge() {
+        if (mAddedTerms.isEmpty() && mRemovedCount == 0) {
+            return;
+        }
+        Collections.sort(mAddedTerms, (t1, t2) -> t1.mTerm.compareTo(t2.mTerm));
+
+        int size = mSize - mRemovedCount + mAddedTerms.size();
+        int charCount = 0;
+        for (int i = 0; i < mSize; i++) {
+            if (!mRemoved[i]) {
+                charCount += mStarts[i + 1] - mStarts[i];
+            }
+        }
+        for (AddedTerm addedTerm : mAddedTerms) {
+            charCount += addedTerm.mTerm.length();
+        }
+
+        char[] chars = new char[charCount];
+        int[] starts = new int[size + 1];
+        long[] ids = new long[size];
+        int[] sharedLengths = new int[size];
+        int maxLength = 0;
+        int kept = 0;
+        int added = 0;
+        int end = 0;
+        for (int n = 0; n < size; n++) {
+            while (kept < mSize && mRemoved[kept]) {
+                kept++;
+            }
+            starts[n] = end;
+            if (kept < mSize && (added == mAddedTerms.size()
+                    || compare(kept, mAddedTerms.get(added).mTerm) <= 0)) {
+                int length = mStarts[kept + 1] - mStarts[kept];
+                System.arraycopy(mChars, mStarts[kept], chars, end, length);
+                ids[n] = mIds[kept];
+                end += length;
+                kept++;
+            } else {
+                AddedTerm addedTerm = mAddedTerms.get(added);
+                addedTerm.mTerm.getChars(0, addedTerm.mTerm.length(), chars, end);
+                ids[n] = addedTerm.mId;
+                end += addedTerm.mTerm.length();
+                added++;
+            }
+            maxLength = Math.max(maxLength, end - starts[n]);
+            if (n > 0) {
+                sharedLengths[n] = getSharedLength(chars, starts[n - 1], starts[n], end);
+            }
+        }
+        starts[size] = end;
+
+        mChars = chars;
+        mStarts = starts;
+        mIds = ids;
+        mSharedLengths = sharedLengths;
+        mRemoved = new boolean[size];
+        mSize = size;
+        mRemovedCount = 0;
+        mMaxLength = maxLength;
+        mAddedTerms.clear();
+    }
+
+    // Returns the index of the first term not less than the given one
+    private int findFirst(String term) {
+        int low = 0;
+        int high = mSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, term) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Compares the term at the index with the given one in the same way as String.compareTo()
+    private int compare(int index, String term) {
+        int start = mStarts[index];
+        int length = mStarts[index + 1] - start;
+        int count = Math.min(length, term.length());
+        for (int i = 0; i < count; i++) {
+            char c1 = mChars[start + i];
+            char c2 = term.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return length - term.length();
+    }
+
+    private static int getSharedLength(char[] chars, int previousStart, int start, int end) {
+        int count = Math.min(start - previousStart, end - start);
+        int length = 0;
+        while (length < count && chars[previousStart + length] == chars[start + length]) {
+            length++;
+        }
+        return length;
+    }
+
+    public static class Match {
+
+        private final long mId;
+        private final String mTerm;
+        private final int mDistance;
+
+        Match(long id, String term, int distance) {
+            mId = id;
+            mTerm = term;
+            mDistance = distance;
+        }
+
+        public long getId() {
+            return mId;
+        }
+
+        public int getDistance() {
+            return mDistance;
+        }
+    }
+
+    private static class AddedTerm {
+
+        final String mTerm;
+        final long mId;
+
+        AddedTerm(String term, long id) {
+            mTerm = term;
+            mId = id;
+        }
+    }
+}
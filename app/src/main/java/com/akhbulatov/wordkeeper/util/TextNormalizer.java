@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Brings a text to the form used for the search: the accents are removed
+ * and the letters are lowercase, so e.g. "cafe" matches the word with an accented "e".
+ * The Cyrillic "\u0439" is a separate letter rather than an accented "\u0438", so it is kept.
+ * The stored search columns of the words and the search queries are normalized the same way
+ */
+public final class TextNormalizer {
+
+    // The combining marks that remain after the letters are decomposed,
+    // except the breve of the decomposed "\u0439" and "\u0419"
+    private static final Pattern COMBINING_MARKS =
+            Pattern.compile("(?<![\\u0438\\u0418])\\u0306|[\\p{Mn}&&[^\\u0306]]+");
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return Normalizer.normalize(stripped, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+}
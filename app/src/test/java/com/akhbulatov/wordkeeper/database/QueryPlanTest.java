@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.database;
+
+import android.app.Application;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewDayEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.ReviewLogEntry;
+import com.akhbulatov.wordkeeper.database.DatabaseContract.WordEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that every query of the adapters reads the tables by their indexes.
+ * The queries are recorded from the cursors they create and explained by SQLite,
+ * a plan scanning a whole table or sorting the rows in a temporary B-tree fails the test
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, application = Application.class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class QueryPlanTest {
+
+    private static final String SQLITE_QUERY_PREFIX = "SQLiteQuery: ";
+    private static final String EXPLAIN_QUERY_PLAN = "EXPLAIN QUERY PLAN ";
+
+    // The SQL of the queries run since the last check
+    private final List<String> mQueries = new ArrayList<>();
+
+    private DatabaseHelper mDatabaseHelper;
+    private SQLiteDatabase mDatabase;
+    private WordDatabaseAdapter mWordDbAdapter;
+    private CategoryDatabaseAdapter mCategoryDbAdapter;
+    private ReviewLogDatabaseAdapter mReviewLogDbAdapter;
+
+    @Before
+    public void setUp() {
+        Application context = RuntimeEnvironment.getApplication();
+        mDatabaseHelper = DatabaseHelper.createInMemory(context, (db, driver, editTable, query) -> {
+            String sql = query.toString().substring(SQLITE_QUERY_PREFIX.length());
+            if (!sql.startsWith(EXPLAIN_QUERY_PLAN)) {
+                mQueries.add(sql);
+            }
+            return new SQLiteCursor(driver, editTable, query);
+        });
+        mDatabase = mDatabaseHelper.getWritableDatabase();
+        mWordDbAdapter = new WordDatabaseAdapter(context);
+        mCategoryDbAdapter = new CategoryDatabaseAdapter(context);
+        mReviewLogDbAdapter = new ReviewLogDatabaseAdapter(context);
+        mQueries.clear();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabaseHelper.close();
+    }
+
+    @Test
+    public void wordList_usesSortIndexes() {
+        for (int sortMode = 0; sortMode <= 1; sortMode++) {
+            close(mWordDbAdapter.getAll(sortMode));
+            assertIndexedQueries();
+        }
+    }
+
+    @Test
+    public void wordPages_useSortIndexesAndIds() {
+        close(mWordDbAdapter.getSortedIds(0, null));
+        close(mWordDbAdapter.getSortedIds(1, null));
+        // Every reload reads all words, so they are read from the indexes without the rows
+        for (String sql : mQueries) {
+            List<String> plan = explain(sql);
+            assertTrue(sql + "\n" + plan, plan.get(0).contains("USING COVERING INDEX"));
+        }
+        close(mWordDbAdapter.getByIds(new long[]{3, 1, 2}));
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void word_isReadById() {
+        mWordDbAdapter.get(42);
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void wordsOfCategory_useCategoryIndex() {
+        close(mWordDbAdapter.getRecordsByCategory(1, null));
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void search_usesFullTextIndex() {
+        // The matches are sorted, there are no more of them than the words containing the query
+        close(mWordDbAdapter.search("word", 0, 500, null));
+        close(mWordDbAdapter.search("word", 1, 500, null));
+        assertIndexedQueries("USE TEMP B-TREE FOR ORDER BY");
+    }
+
+    @Test
+    public void dueWords_useDueIndex() {
+        mWordDbAdapter.getDue(System.currentTimeMillis(), 20);
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void normalizedNames_scanWholeTable() {
+        // The index of the typos is built from all words, so the table is read in the order of the rows
+        close(mWordDbAdapter.getNormalizedNames());
+        assertIndexedQueries("SCAN TABLE " + WordEntry.TABLE_NAME);
+
+        // The names of the changed words are read by their IDs
+        close(mWordDbAdapter.getNormalizedNames(new long[]{1, 2, 3}));
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void categories_scanWholeTable() {
+        // All categories are shown at once, and the words are counted by the index of the category
+        close(mCategoryDbAdapter.getAll());
+        close(mCategoryDbAdapter.getAllWithCounts());
+        assertIndexedQueries("SCAN TABLE " + DatabaseContract.CategoryEntry.TABLE_NAME);
+
+        mCategoryDbAdapter.get(42);
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void reviewLog_usesIndexRanges() {
+        mReviewLogDbAdapter.getHistory(1, 20);
+        mReviewLogDbAdapter.getDailyHistory(1);
+        mReviewLogDbAdapter.getReviewsPerDay(100, 200);
+        mReviewLogDbAdapter.compact(System.currentTimeMillis());
+        assertIndexedQueries();
+    }
+
+    @Test
+    public void statements_useIndexes() {
+        // The statements do not create cursors, so they are built from the same SQL as the adapters
+        assertIndexedPlan("SELECT count(*) FROM " + WordEntry.TABLE_NAME
+                + " WHERE " + DatabaseContract.SQL_WORD_MATCH);
+        assertIndexedPlan(DatabaseContract.SQL_MOVE_WORD);
+        assertIndexedPlan(DatabaseContract.SQL_DELETE_WORD);
+        assertIndexedPlan(DatabaseContract.SQL_UPDATE_WORD_REVIEW);
+        // The review is selected from its arguments and its word is looked up by the ID
+        assertIndexedPlan(DatabaseContract.SQL_INSERT_REVIEW_LOG, "SCAN CONSTANT ROW");
+        assertIndexedPlan(DatabaseContract.SQL_UPDATE_REVIEW_DAY_ADD);
+        assertIndexedPlan(DatabaseContract.SQL_DELETE_REVIEW_LOG_BEFORE);
+        // The reviews are deleted with their words by the foreign keys
+        assertIndexedPlan("DELETE FROM " + ReviewDayEntry.TABLE_NAME
+                + " WHERE " + ReviewDayEntry.COLUMN_WORD_ID + " = ?");
+        assertIndexedPlan("DELETE FROM " + ReviewLogEntry.TABLE_NAME
+                + " WHERE " + ReviewLogEntry.COLUMN_WORD_ID + " = ?");
+    }
+
+    private void assertIndexedQueries(String... allowedSteps) {
+        assertFalse("No query was run", mQueries.isEmpty());
+        for (String sql : mQueries) {
+            assertIndexedPlan(sql, allowedSteps);
+        }
+        mQueries.clear();
+    }
+
+    /**
+     * Fails if a step of the plan of the query scans a table without an index
+     * or sorts the rows in a temporary B-tree, unless the step contains one of the allowed steps
+     */
+    private void assertIndexedPlan(String sql, String... allowedSteps) {
+        List<String> plan = explain(sql);
+        for (String step : plan) {
+            boolean fullScan = step.startsWith("SCAN ") && !step.contains(" USING ")
+                    && !step.contains("VIRTUAL TABLE");
+            if ((fullScan || step.contains("USE TEMP B-TREE")) && !isAllowed(step, allowedSteps)) {
+                fail("Unindexed step \"" + step + "\" in " + sql + "\n" + plan);
+            }
+        }
+    }
+
+    private static boolean isAllowed(String step, String[] allowedSteps) {
+        for (String allowedStep : allowedSteps) {
+            if (step.startsWith(allowedStep)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> explain(String sql) {
+        // The plan does not depend on the values of the arguments
+        String[] args = new String[countArguments(sql)];
+        Arrays.fill(args, "0");
+        List<String> plan = new ArrayList<>();
+        Cursor cursor = mDatabase.rawQuery(EXPLAIN_QUERY_PLAN + sql, args);
+        try {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailIndex));
+            }
+        } finally {
+            cursor.close();
+        }
+        return plan;
+    }
+
+    private static int countArguments(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void close(Cursor cursor) {
+        if (cursor != null) {
+            cursor.close();
+        }
+    }
+}
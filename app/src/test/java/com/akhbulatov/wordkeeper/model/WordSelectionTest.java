@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WordSelectionTest {
+
+    @Test
+    public void toggle_selectsAndUnselectsWord() {
+        WordSelection selection = new WordSelection();
+
+        selection.toggle(1);
+        selection.toggle(2);
+        selection.toggle(1);
+
+        assertFalse(selection.isSelected(1));
+        assertTrue(selection.isSelected(2));
+        assertEquals(1, selection.getCount());
+        assertArrayEquals(new long[]{2}, selection.getIds());
+        assertArrayEquals(new long[0], selection.getExcludedIds());
+    }
+
+    @Test
+    public void setSelected_isIdempotent() {
+        WordSelection selection = new WordSelection();
+
+        selection.setSelected(1, true);
+        selection.setSelected(1, true);
+        selection.setSelected(2, false);
+
+        assertEquals(1, selection.getCount());
+        assertTrue(selection.isSelected(1));
+        assertFalse(selection.isSelected(2));
+    }
+
+    @Test
+    public void selectAll_selectsWordsNotReadYet() {
+        WordSelection selection = new WordSelection();
+        selection.toggle(1);
+
+        selection.selectAll("word", 100);
+
+        assertTrue(selection.isAllMatching());
+        assertEquals("word", selection.getQuery());
+        assertEquals(100, selection.getCount());
+        assertTrue(selection.isSelected(1));
+        assertTrue(selection.isSelected(42));
+        assertArrayEquals(new long[0], selection.getIds());
+    }
+
+    @Test
+    public void selectAll_unselectedWordsAreExcluded() {
+        WordSelection selection = new WordSelection();
+        selection.selectAll("", 100);
+
+        selection.toggle(1);
+        selection.setSelected(2, false);
+        selection.setSelected(3, true);
+
+        assertFalse(selection.isSelected(1));
+        assertFalse(selection.isSelected(2));
+        assertTrue(selection.isSelected(3));
+        assertEquals(98, selection.getCount());
+        long[] excludedIds = selection.getExcludedIds();
+        Arrays.sort(excludedIds);
+        assertArrayEquals(new long[]{1, 2}, excludedIds);
+    }
+
+    @Test
+    public void setMatchingCount_updatesCountOfAllMatching() {
+        WordSelection selection = new WordSelection();
+        selection.selectAll("word", 10);
+        selection.toggle(1);
+        selection.toggle(2);
+
+        selection.setMatchingCount(1);
+
+        // The count never becomes negative while the exact count is unknown
+        assertEquals(0, selection.getCount());
+        assertTrue(selection.isEmpty());
+    }
+
+    @Test
+    public void clear_returnsToSelectionOneByOne() {
+        WordSelection selection = new WordSelection();
+        selection.selectAll("word", 10);
+        selection.toggle(1);
+
+        selection.clear();
+
+        assertFalse(selection.isAllMatching());
+        assertNull(selection.getQuery());
+        assertTrue(selection.isEmpty());
+        assertFalse(selection.isSelected(1));
+    }
+}
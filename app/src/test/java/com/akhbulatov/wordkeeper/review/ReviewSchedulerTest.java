@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.review;
+
+import com.akhbulatov.wordkeeper.model.ReviewCard;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pins the intervals given by the default parameters of FSRS 4.5
+ */
+public class ReviewSchedulerTest {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long NOW = 1_500_000_000_000L;
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void grade_newWord_givesInitialStabilityOfGrade() {
+        assertFirstReview(ReviewScheduler.GRADE_AGAIN, 0.4872, 7.6214);
+        assertFirstReview(ReviewScheduler.GRADE_HARD, 1.4003, 6.3916);
+        assertFirstReview(ReviewScheduler.GRADE_GOOD, 3.7145, 5.1618);
+        assertFirstReview(ReviewScheduler.GRADE_EASY, 13.8206, 3.932);
+    }
+
+    @Test
+    public void grade_goodOnTime_increasesStability() {
+        ReviewCard card = newCard();
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_GOOD, NOW);
+
+        long due = card.getDue();
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_GOOD, due);
+
+        assertEquals(14.094985, card.getStability(), DELTA);
+        assertEquals(5.1618, card.getDifficulty(), DELTA);
+        assertEquals(due + Math.round(card.getStability() * DAY_MS), card.getDue());
+        assertEquals(0, card.getLapses());
+    }
+
+    @Test
+    public void grade_againOnTime_decreasesStabilityAndCountsLapse() {
+        ReviewCard card = newCard();
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_GOOD, NOW);
+
+        long due = card.getDue();
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_AGAIN, due);
+
+        assertEquals(1.418525, card.getStability(), DELTA);
+        assertEquals(6.901155, card.getDifficulty(), DELTA);
+        assertEquals(due + Math.round(card.getStability() * DAY_MS), card.getDue());
+        assertEquals(1, card.getLapses());
+    }
+
+    @Test
+    public void grade_againOfUnstableWord_neverIncreasesStability() {
+        ReviewCard card = newCard();
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_AGAIN, NOW);
+
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_AGAIN, card.getDue());
+
+        assertTrue(card.getStability() <= 0.4872);
+        assertEquals(1, card.getLapses());
+    }
+
+    @Test
+    public void getRetrievability_followsPowerCurve() {
+        ReviewCard card = newCard();
+        assertEquals(0, ReviewScheduler.getRetrievability(card, NOW), DELTA);
+
+        ReviewScheduler.grade(card, ReviewScheduler.GRADE_GOOD, NOW);
+        double stability = card.getStability();
+
+        assertEquals(1, ReviewScheduler.getRetrievability(card, NOW), DELTA);
+        // The word is due when the probability to recall it drops to 90%
+        assertEquals(0.9, ReviewScheduler.getRetrievability(card, card.getDue()), DELTA);
+        // (1 + 19 / 81 * 9) ^ -0.5, the curve of FSRS 4 would give 0.5
+        long later = NOW + Math.round(9 * stability * DAY_MS);
+        assertEquals(0.566947, ReviewScheduler.getRetrievability(card, later), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void grade_unknownGrade_throws() {
+        ReviewScheduler.grade(newCard(), 5, NOW);
+    }
+
+    private static void assertFirstReview(int grade, double stability, double difficulty) {
+        ReviewCard card = newCard();
+
+        ReviewScheduler.grade(card, grade, NOW);
+
+        assertEquals(stability, card.getStability(), DELTA);
+        assertEquals(difficulty, card.getDifficulty(), DELTA);
+        assertEquals(NOW + Math.round(stability * DAY_MS), card.getDue());
+        assertEquals(0, card.getLapses());
+    }
+
+    private static ReviewCard newCard() {
+        return new ReviewCard(1, "word", "translation", 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import android.app.Application;
+import android.database.MatrixCursor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, application = Application.class)
+public class CursorFilterTest {
+
+    private CursorFilter mFilter;
+
+    @Before
+    public void setUp() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{"_id", "name"});
+        cursor.addRow(new Object[]{1, "Cat"});
+        cursor.addRow(new Object[]{2, "Caf\u00e9"});
+        cursor.addRow(new Object[]{3, "Dog"});
+        cursor.addRow(new Object[]{4, "Scarf"});
+        cursor.addRow(new Object[]{5, null});
+        mFilter = new CursorFilter(cursor, 1);
+    }
+
+    @Test
+    public void filter_emptyText_returnsAllRows() {
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, mFilter.filter(""));
+    }
+
+    @Test
+    public void filter_returnsRowsContainingText() {
+        assertArrayEquals(new int[]{0, 1, 3}, mFilter.filter("ca"));
+        assertArrayEquals(new int[]{2}, mFilter.filter("og"));
+        assertArrayEquals(new int[0], mFilter.filter("bird"));
+    }
+
+    @Test
+    public void filter_ignoresCaseAndAccents() {
+        assertArrayEquals(new int[]{1}, mFilter.filter("CAFE"));
+        assertArrayEquals(new int[]{1}, mFilter.filter("caf\u00e9"));
+    }
+
+    @Test
+    public void filter_longerText_narrowsPreviousResults() {
+        mFilter.filter("c");
+
+        assertArrayEquals(new int[]{0, 1, 3}, mFilter.filter("ca"));
+        assertArrayEquals(new int[]{1}, mFilter.filter("caf"));
+        assertArrayEquals(new int[0], mFilter.filter("cafx"));
+    }
+
+    @Test
+    public void filter_otherText_checksAllRows() {
+        mFilter.filter("cat");
+
+        assertArrayEquals(new int[]{1, 3}, mFilter.filter("f"));
+    }
+
+    @Test
+    public void filter_deletedCharacters_returnsCachedResults() {
+        int[] positions = mFilter.filter("ca");
+        mFilter.filter("caf");
+
+        assertSame(positions, mFilter.filter("Ca"));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+    @Test
+    public void add_newId_returnsTrue() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(1));
+        assertTrue(set.add(0));
+        assertFalse(set.add(1));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(1));
+        assertFalse(set.contains(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_negativeId_throws() {
+        new LongHashSet().add(-1);
+    }
+
+    @Test
+    public void contains_negativeId_returnsFalse() {
+        assertFalse(new LongHashSet().contains(-1));
+        assertFalse(new LongHashSet().remove(-1));
+    }
+
+    @Test
+    public void add_manyIds_keepsAllOfThem() {
+        LongHashSet set = new LongHashSet(2);
+        for (long id = 0; id < 1000; id++) {
+            set.add(id * 31);
+        }
+
+        assertEquals(1000, set.size());
+        for (long id = 0; id < 1000; id++) {
+            assertTrue(set.contains(id * 31));
+            assertFalse(set.contains(id * 31 + 1));
+        }
+    }
+
+    @Test
+    public void remove_keepsIdsPlacedAfterRemovedOne() {
+        LongHashSet set = new LongHashSet();
+        for (long id = 0; id < 8; id++) {
+            set.add(id);
+        }
+
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+
+        assertEquals(7, set.size());
+        assertFalse(set.contains(3));
+        for (long id = 0; id < 8; id++) {
+            if (id != 3) {
+                assertTrue("Lost " + id, set.contains(id));
+            }
+        }
+    }
+
+    @Test
+    public void addAndRemove_matchesHashSet() {
+        // The small range makes the IDs collide, so the runs of the slots are shifted on removal
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            long id = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), set.remove(id));
+            } else {
+                assertEquals(expected.add(id), set.add(id));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        for (long id = 0; id < 200; id++) {
+            assertEquals(expected.contains(id), set.contains(id));
+        }
+        long[] ids = set.toArray();
+        Arrays.sort(ids);
+        long[] expectedIds = new long[expected.size()];
+        int i = 0;
+        for (long id : expected) {
+            expectedIds[i++] = id;
+        }
+        Arrays.sort(expectedIds);
+        assertArrayEquals(expectedIds, ids);
+    }
+
+    @Test
+    public void clear_removesAllIds() {
+        LongHashSet set = new LongHashSet();
+        set.add(1);
+        set.add(2);
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1));
+        assertArrayEquals(new long[0], set.toArray());
+        assertTrue(set.add(1));
+    }
+}
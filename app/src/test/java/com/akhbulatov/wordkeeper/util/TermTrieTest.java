@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the search of the trie against the distances of all terms
+ */
+public class TermTrieTest {
+
+    @Test
+    public void search_emptyTree_returnsNoMatches() {
+        assertTrue(new TermTrie().search("word", 2).isEmpty());
+    }
+
+    @Test
+    public void search_returnsClosestMatchesFirst() {
+        TermTrie trie = new TermTrie();
+        trie.add("cat", 1);
+        trie.add("dog", 2);
+        trie.add("cast", 3);
+        trie.add("cart", 4);
+
+        List<TermTrie.Match> matches = trie.search("cat", 1);
+
+        // The matches at the same distance are ordered by their terms
+        assertMatches(matches, new long[]{1, 4, 3}, new int[]{0, 1, 1});
+    }
+
+    @Test
+    public void search_returnsAllIdsOfTerm() {
+        TermTrie trie = new TermTrie();
+        trie.add("book", 1);
+        trie.add("look", 2);
+        trie.add("book", 3);
+
+        assertMatches(trie.search("book", 0), new long[]{1, 3}, new int[]{0, 0});
+    }
+
+    @Test
+    public void remove_keepsTermsSharingPrefix() {
+        TermTrie trie = new TermTrie();
+        trie.add("book", 1);
+        trie.add("books", 2);
+        trie.add("look", 3);
+        trie.merge();
+
+        trie.remove("book", 1);
+
+        assertMatches(trie.search("book", 1), new long[]{2, 3}, new int[]{1, 1});
+        assertMatches(trie.search("books", 0), new long[]{2}, new int[]{0});
+    }
+
+    @Test
+    public void remove_unknownTerm_keepsTerms() {
+        TermTrie trie = new TermTrie();
+        trie.add("book", 1);
+
+        trie.remove("boot", 1);
+        trie.remove("book", 2);
+
+        assertMatches(trie.search("book", 0), new long[]{1}, new int[]{0});
+    }
+
+    @Test
+    public void search_longTerms_measuresWholeTerms() {
+        TermTrie trie = new TermTrie();
+        String term = "internationalization-and-localization";
+        trie.add(term, 1);
+        trie.add("short", 2);
+
+        assertMatches(trie.search(term + "s", 1), new long[]{1}, new int[]{1});
+    }
+
+    @Test
+    public void search_emptyText_findsShortTerms() {
+        TermTrie trie = new TermTrie();
+        trie.add("a", 1);
+        trie.add("ab", 2);
+        trie.add("abc", 3);
+
+        assertMatches(trie.search("", 2), new long[]{1, 2}, new int[]{1, 2});
+    }
+
+    @Test
+    public void search_findsSameTermsAsFullScan() {
+        Random random = new Random(42);
+        TermTrie trie = new TermTrie();
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String term = randomTerm(random);
+            terms.add(term);
+            trie.add(term, i);
+        }
+
+        assertSameAsFullScan(trie, terms, random);
+    }
+
+    @Test
+    public void search_afterChanges_findsSameTermsAsFullScan() {
+        Random random = new Random(7);
+        TermTrie trie = new TermTrie();
+        List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String term = randomTerm(random);
+            terms.add(term);
+            trie.add(term, i);
+        }
+        trie.merge();
+
+        // The removed terms are merged together with the added ones
+        for (int id = 0; id < terms.size(); id += 3) {
+            trie.remove(terms.get(id), id);
+            terms.set(id, null);
+        }
+        for (int i = 0; i < 100; i++) {
+            String term = randomTerm(random);
+            terms.add(term);
+            trie.add(term, terms.size() - 1);
+        }
+
+        assertSameAsFullScan(trie, terms, random);
+    }
+
+    // The removed terms are null
+    private static void assertSameAsFullScan(TermTrie trie, List<String> terms, Random random) {
+        for (int i = 0; i < 50; i++) {
+            String text = randomTerm(random);
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                List<Long> expected = new ArrayList<>();
+                for (int id = 0; id < terms.size(); id++) {
+                    if (terms.get(id) != null && levenshtein(text, terms.get(id)) <= maxDistance) {
+                        expected.add((long) id);
+                    }
+                }
+
+                List<Long> actual = new ArrayList<>();
+                for (TermTrie.Match match : trie.search(text, maxDistance)) {
+                    assertEquals(levenshtein(text, terms.get((int) match.getId())), match.getDistance());
+                    actual.add(match.getId());
+                }
+                Collections.sort(actual);
+                assertEquals(text + " within " + maxDistance, expected, actual);
+            }
+        }
+    }
+
+    private static void assertMatches(List<TermTrie.Match> matches, long[] ids, int[] distances) {
+        assertEquals(ids.length, matches.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], matches.get(i).getId());
+            assertEquals(distances[i], matches.get(i).getDistance());
+        }
+    }
+
+    private static String randomTerm(Random random) {
+        // A small alphabet, so many terms are close to each other
+        char[] chars = new char[2 + random.nextInt(5)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+
+    private static int levenshtein(String s1, String s2) {
+        int[][] distances = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            for (int j = 0; j <= s2.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                } else {
+                    int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                    distances[i][j] = Math.min(Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1),
+                            distances[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return distances[s1.length()][s2.length()];
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Alidibir Akhbulatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.akhbulatov.wordkeeper.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TextNormalizerTest {
+
+    @Test
+    public void normalize_nullOrEmpty_returnsEmpty() {
+        assertEquals("", TextNormalizer.normalize(null));
+        assertEquals("", TextNormalizer.normalize(""));
+    }
+
+    @Test
+    public void normalize_lowercasesLetters() {
+        assertEquals("word keeper", TextNormalizer.normalize("Word KEEPER"));
+    }
+
+    @Test
+    public void normalize_removesAccents() {
+        assertEquals("cafe", TextNormalizer.normalize("Caf\u00e9"));
+        assertEquals("naive", TextNormalizer.normalize("na\u00efve"));
+        // The decomposed "e" with the acute accent
+        assertEquals("cafe", TextNormalizer.normalize("cafe\u0301"));
+    }
+
+    @Test
+    public void normalize_foldsCyrillicYo() {
+        assertEquals("\u0435\u043b\u043a\u0430", TextNormalizer.normalize("\u0401\u043b\u043a\u0430"));
+    }
+
+    @Test
+    public void normalize_keepsCyrillicShortI() {
+        assertEquals("\u0439\u043e\u0433\u0443\u0440\u0442",
+                TextNormalizer.normalize("\u0419\u043e\u0433\u0443\u0440\u0442"));
+        // The words differ only by the last letter
+        assertEquals("\u043c\u043e\u0439", TextNormalizer.normalize("\u043c\u043e\u0439"));
+        assertEquals("\u043c\u043e\u0438", TextNormalizer.normalize("\u043c\u043e\u0438"));
+    }
+
+    @Test
+    public void normalize_decomposedShortI_returnsComposedLetter() {
+        assertEquals("\u0439", TextNormalizer.normalize("\u0438\u0306"));
+        assertEquals("\u0439", TextNormalizer.normalize("\u0418\u0306"));
+    }
+
+    @Test
+    public void normalize_removesBreveOfOtherLetters() {
+        assertEquals("a", TextNormalizer.normalize("\u0103"));
+    }
+}